@@ -0,0 +1,131 @@
+package com.example.myapplication;
+
+import android.content.ClipData;
+import android.content.Intent;
+import android.net.Uri;
+import android.os.Bundle;
+import android.widget.ArrayAdapter;
+import android.widget.ListView;
+import android.widget.ProgressBar;
+import android.widget.TextView;
+
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.widget.Toolbar;
+import androidx.lifecycle.ViewModel;
+import androidx.lifecycle.ViewModelProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+// Progress screen for classifying a multi-selection or a whole folder of images
+public class BatchAnalysisActivity extends AppCompatActivity implements BatchAnalyzer.Listener {
+
+    static final String EXTRA_TREE_URI = "treeUri";
+    private static final String STATE_BATCH_ID = "batchId";
+
+    private ProgressBar batchProgress;
+    private TextView batchStatus;
+    private TextView batchThroughput;
+    private ArrayAdapter<String> resultsAdapter;
+
+    // Holds the running analyzer while the activity is recreated, e.g. on rotation
+    public static class BatchViewModel extends ViewModel {
+        BatchAnalyzer analyzer;
+
+        @Override
+        protected void onCleared() {
+            if (analyzer != null) analyzer.cancel();
+        }
+    }
+
+    private String batchId;
+    private BatchAnalyzer analyzer;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_batch);
+
+        Toolbar toolbar = findViewById(R.id.toolbar);
+        setSupportActionBar(toolbar);
+
+        batchProgress = findViewById(R.id.batchProgress);
+        batchStatus = findViewById(R.id.batchStatus);
+        batchThroughput = findViewById(R.id.batchThroughput);
+        ListView batchResults = findViewById(R.id.batchResults);
+        resultsAdapter = new ArrayAdapter<>(this, android.R.layout.simple_list_item_1, new ArrayList<>());
+        batchResults.setAdapter(resultsAdapter);
+        batchStatus.setText("Finding images...");
+
+        // Kept across process death, so a restarted batch reuses its history keys
+        batchId = savedInstanceState != null ? savedInstanceState.getString(STATE_BATCH_ID) : null;
+        if (batchId == null) batchId = UUID.randomUUID().toString();
+
+        BatchViewModel model = new ViewModelProvider(this).get(BatchViewModel.class);
+        if (model.analyzer == null) {
+            model.analyzer = new BatchAnalyzer(this, batchId);
+            String treeUri = getIntent().getStringExtra(EXTRA_TREE_URI);
+            model.analyzer.start(collectUris(getIntent()), treeUri != null ? Uri.parse(treeUri) : null);
+        }
+        analyzer = model.analyzer;
+        analyzer.setListener(this);
+    }
+
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putString(STATE_BATCH_ID, batchId);
+    }
+
+    @Override
+    protected void onDestroy() {
+        analyzer.setListener(null);
+        super.onDestroy();
+    }
+
+    private List<Uri> collectUris(Intent intent) {
+        List<Uri> uris = new ArrayList<>();
+        ClipData clipData = intent.getClipData();
+        if (clipData != null) {
+            for (int i = 0; i < clipData.getItemCount(); i++) {
+                uris.add(clipData.getItemAt(i).getUri());
+            }
+        } else if (intent.getData() != null) {
+            uris.add(intent.getData());
+        }
+        return uris;
+    }
+
+    @Override
+    public void onStarted(int total) {
+        batchProgress.setMax(total);
+        batchStatus.setText(String.format(Locale.getDefault(), "Analyzing %d images...", total));
+    }
+
+    @Override
+    public void onItemResult(Uri uri, SkinClassifier.Recognition top) {
+        resultsAdapter.add(String.format(Locale.getDefault(), "%s — %s (%.0f%%)",
+                uri.getLastPathSegment(), top.label, top.confidence * 100));
+    }
+
+    @Override
+    public void onItemFailed(Uri uri, Exception e) {
+        resultsAdapter.add(uri.getLastPathSegment() + " — could not be analyzed");
+    }
+
+    @Override
+    public void onProgress(int done, int total, float imagesPerSecond, long etaMillis) {
+        batchProgress.setProgress(done);
+        batchStatus.setText(String.format(Locale.getDefault(), "%d of %d analyzed", done, total));
+        batchThroughput.setText(String.format(Locale.getDefault(), "%.1f images/s · ETA %ds",
+                imagesPerSecond, Math.max(0, etaMillis) / 1000));
+    }
+
+    @Override
+    public void onComplete(int succeeded, int failed, long elapsedMillis) {
+        batchStatus.setText(String.format(Locale.getDefault(), "Done: %d analyzed, %d failed in %.1fs",
+                succeeded, failed, elapsedMillis / 1000f));
+    }
+}
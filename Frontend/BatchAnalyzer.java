@@ -0,0 +1,300 @@
+package com.example.myapplication;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.graphics.Bitmap;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.provider.DocumentsContract;
+import android.util.Log;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Classifies many images at once.
+// Decode + preprocess runs on one worker per core into a fixed set of tensor slots;
+// a collector thread packs ready tensors into batches of SkinClassifier.BATCH_SIZE for the
+// inference thread; only the last batch of a run is partial, and it is padded.
+// Each result is written to history as soon as its batch completes, keyed by batch id and image
+// so a batch restarted after process death does not record an image twice.
+// The analyzer outlives its activity across recreation: a newly attached listener is first
+// brought up to date with everything delivered so far.
+class BatchAnalyzer {
+
+    interface Listener {
+        // All callbacks arrive on the main thread
+        void onStarted(int total);
+
+        void onItemResult(Uri uri, SkinClassifier.Recognition top);
+
+        void onItemFailed(Uri uri, Exception e);
+
+        void onProgress(int done, int total, float imagesPerSecond, long etaMillis);
+
+        void onComplete(int succeeded, int failed, long elapsedMillis);
+    }
+
+    private static final String TAG = "BatchAnalyzer";
+
+    // Preprocessed input tensor waiting for a batch
+    private static final class Prepared {
+        final Uri uri;
+        final ByteBuffer tensor;
+        final Exception error;
+
+        Prepared(Uri uri, ByteBuffer tensor, Exception error) {
+            this.uri = uri;
+            this.tensor = tensor;
+            this.error = error;
+        }
+    }
+
+    // A delivered callback, kept for replay
+    private interface Event {
+        void deliver(Listener listener);
+    }
+
+    private interface Keeper {
+        void keep(Event event);
+    }
+
+    private final Context appContext;
+    private final InferenceEngine engine;
+    private final String batchId;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private final int workers = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    private final ExecutorService decodePool = Executors.newFixedThreadPool(workers, r -> {
+        Thread thread = new Thread(r, "Batch decode");
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+
+    // Bounded set of reusable tensors: decode workers block when inference falls behind,
+    // so memory stays constant regardless of how many images were selected
+    private final BlockingQueue<ByteBuffer> freeTensors;
+    private final BlockingQueue<Prepared> ready;
+
+    private volatile boolean cancelled;
+    private volatile Thread collector;
+
+    // Main thread only
+    private Listener listener;
+    private Event started;
+    private final List<Event> items = new ArrayList<>();
+    private Event progress;
+    private Event complete;
+
+    BatchAnalyzer(Context context, String batchId) {
+        this.appContext = context.getApplicationContext();
+        this.engine = InferenceEngine.get(context);
+        this.batchId = batchId;
+
+        int slots = SkinClassifier.BATCH_SIZE * 2;
+        freeTensors = new ArrayBlockingQueue<>(slots);
+        ready = new ArrayBlockingQueue<>(slots);
+        for (int i = 0; i < slots; i++) {
+            freeTensors.add(ByteBuffer.allocateDirect(ImagePreprocessor.TENSOR_BYTES).order(ByteOrder.nativeOrder()));
+        }
+    }
+
+    // Classifies picked plus the top-level images of treeUri (may be null); the folder is listed
+    // on the decode pool, since a provider query can be slow
+    void start(List<Uri> picked, Uri treeUri) {
+        decodePool.execute(() -> {
+            List<Uri> uris = new ArrayList<>(picked);
+            if (treeUri != null) {
+                try {
+                    uris.addAll(listFolderImages(treeUri));
+                } catch (Exception e) {
+                    Log.e(TAG, "Cannot list " + treeUri, e);
+                }
+            }
+            if (cancelled) return;
+            int total = uris.size();
+            deliver(l -> l.onStarted(total), e -> started = e);
+
+            long startTime = SystemClock.elapsedRealtime();
+            AtomicInteger nextIndex = new AtomicInteger();
+            try {
+                for (int w = 0; w < workers; w++) {
+                    decodePool.execute(() -> {
+                        int[] pixels = new int[SkinClassifier.INPUT_SIZE * SkinClassifier.INPUT_SIZE];
+                        int index;
+                        while (!cancelled && (index = nextIndex.getAndIncrement()) < total) {
+                            if (!prepare(uris.get(index), pixels)) return;
+                        }
+                    });
+                }
+            } catch (RejectedExecutionException e) {
+                return; // Cancelled while listing
+            }
+
+            collector = new Thread(() -> collect(total, startTime), "Batch collector");
+            collector.start();
+        });
+    }
+
+    // Main thread only; null detaches
+    void setListener(Listener listener) {
+        this.listener = listener;
+        if (listener == null) return;
+        if (started != null) started.deliver(listener);
+        for (Event item : items) {
+            item.deliver(listener);
+        }
+        if (progress != null) progress.deliver(listener);
+        if (complete != null) complete.deliver(listener);
+    }
+
+    void cancel() {
+        cancelled = true;
+        decodePool.shutdownNow();
+        Thread thread = collector;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    // Top-level images in a folder picked with ACTION_OPEN_DOCUMENT_TREE
+    private List<Uri> listFolderImages(Uri treeUri) {
+        List<Uri> uris = new ArrayList<>();
+        Uri children = DocumentsContract.buildChildDocumentsUriUsingTree(treeUri,
+                DocumentsContract.getTreeDocumentId(treeUri));
+        String[] projection = {DocumentsContract.Document.COLUMN_DOCUMENT_ID, DocumentsContract.Document.COLUMN_MIME_TYPE};
+        try (Cursor cursor = appContext.getContentResolver().query(children, projection, null, null, null)) {
+            if (cursor == null) return uris;
+            while (cursor.moveToNext()) {
+                String mimeType = cursor.getString(1);
+                if (mimeType != null && mimeType.startsWith("image/")) {
+                    uris.add(DocumentsContract.buildDocumentUriUsingTree(treeUri, cursor.getString(0)));
+                }
+            }
+        }
+        return uris;
+    }
+
+    // Returns false if interrupted
+    private boolean prepare(Uri uri, int[] pixels) {
+        try {
+            ByteBuffer tensor = freeTensors.take();
+            try {
+                Bitmap bitmap = ImagePreprocessor.decodeForModel(appContext, uri);
+                tensor.clear();
+                ImagePreprocessor.writeTensor(bitmap, pixels, tensor);
+                bitmap.recycle();
+                tensor.flip();
+                ready.put(new Prepared(uri, tensor, null));
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                freeTensors.put(tensor);
+                ready.put(new Prepared(uri, null, e));
+            }
+            return true;
+        } catch (InterruptedException e) {
+            return false;
+        }
+    }
+
+    private void collect(int total, long startTime) {
+        int done = 0;
+        int failed = 0;
+        List<Prepared> batch = new ArrayList<>(SkinClassifier.BATCH_SIZE);
+
+        try {
+            while (done < total && !cancelled) {
+                // Every image yields a Prepared (tensor or error), so waiting for a full batch
+                // always completes; a batch costs the same however many of its slots are filled
+                int size = Math.min(SkinClassifier.BATCH_SIZE, total - done);
+                batch.clear();
+                while (batch.size() < size) {
+                    batch.add(ready.take());
+                }
+
+                List<Prepared> valid = new ArrayList<>(batch.size());
+                for (Prepared prepared : batch) {
+                    if (prepared.error != null) {
+                        failed++;
+                        postFailure(prepared.uri, prepared.error);
+                    } else {
+                        valid.add(prepared);
+                    }
+                }
+
+                if (!valid.isEmpty()) {
+                    List<List<SkinClassifier.Recognition>> results = runBatch(valid);
+                    for (int i = 0; i < valid.size(); i++) {
+                        Prepared prepared = valid.get(i);
+                        SkinClassifier.Recognition top = results.get(i).get(0);
+                        HistoryItem item = new HistoryItem(
+                                top.label, top.confidence, System.currentTimeMillis(), prepared.uri.toString());
+                        item.scanKey = batchId + ":" + prepared.uri;
+                        HistoryRepository.get(appContext).insert(item);
+                        deliver(l -> l.onItemResult(prepared.uri, top), items::add);
+                    }
+                }
+
+                done += batch.size();
+                postProgress(done, total, startTime);
+            }
+        } catch (InterruptedException e) {
+            return;
+        } catch (Exception e) {
+            Log.e(TAG, "Batch inference failed", e);
+            failed += total - done;
+            done = total;
+        }
+
+        decodePool.shutdown();
+        int succeeded = done - failed;
+        int failedCount = failed;
+        long elapsed = SystemClock.elapsedRealtime() - startTime;
+        deliver(l -> l.onComplete(succeeded, failedCount, elapsed), e -> complete = e);
+    }
+
+    private List<List<SkinClassifier.Recognition>> runBatch(List<Prepared> valid) throws Exception {
+        try {
+            return engine.submit(classifier -> {
+                ByteBuffer input = classifier.getBatchInputBuffer();
+                for (Prepared prepared : valid) {
+                    input.put(prepared.tensor);
+                }
+                return classifier.classifyBatch(valid.size(), 1);
+            }).get();
+        } finally {
+            for (Prepared prepared : valid) {
+                freeTensors.put(prepared.tensor);
+            }
+        }
+    }
+
+    private void postFailure(Uri uri, Exception e) {
+        deliver(l -> l.onItemFailed(uri, e), items::add);
+    }
+
+    private void postProgress(int done, int total, long startTime) {
+        long elapsed = Math.max(1, SystemClock.elapsedRealtime() - startTime);
+        float rate = done * 1000f / elapsed;
+        long eta = rate > 0 ? (long) ((total - done) * 1000 / rate) : -1;
+        deliver(l -> l.onProgress(done, total, rate, eta), e -> progress = e);
+    }
+
+    // Records event on the main thread with keep, then hands it to the current listener
+    private void deliver(Event event, Keeper keep) {
+        mainHandler.post(() -> {
+            keep.keep(event);
+            if (listener != null) event.deliver(listener);
+        });
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.myapplication;
+
+import android.graphics.Bitmap;
+import android.util.LruCache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Byte-bounded LRU memory cache with a pool of evicted bitmaps that decoders can reuse via inBitmap.
+// The cache and display counts are main-thread only; the pool may be read from decode threads.
+class BitmapCache {
+
+    private final LruCache<String, Bitmap> memory;
+    // The bitmaps memory holds, so a detach can check membership without snapshotting the LRU
+    private final Set<Bitmap> cached = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    // Bitmaps currently shown by a view must not be recycled into the pool
+    private final Map<Bitmap, Integer> displayed = new IdentityHashMap<>();
+
+    private final List<Bitmap> pool = new ArrayList<>();
+    private final int maxPoolBytes;
+    private int poolBytes;
+
+    final AtomicLong memoryHits = new AtomicLong();
+    final AtomicLong diskHits = new AtomicLong();
+    final AtomicLong misses = new AtomicLong();
+
+    BitmapCache(int maxBytes) {
+        maxPoolBytes = maxBytes / 4;
+        memory = new LruCache<String, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap value) {
+                return value.getAllocationByteCount();
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, String key, Bitmap oldValue, Bitmap newValue) {
+                // Re-putting the same bitmap under its key replaces it with itself
+                if (oldValue == newValue) return;
+                cached.remove(oldValue);
+                if (!displayed.containsKey(oldValue)) {
+                    offerToPool(oldValue);
+                }
+            }
+        };
+    }
+
+    // Main thread
+    Bitmap get(String key) {
+        Bitmap bitmap = memory.get(key);
+        if (bitmap != null) {
+            memoryHits.incrementAndGet();
+        }
+        return bitmap;
+    }
+
+    // Main thread; unlike get, not counted as a hit
+    boolean contains(String key) {
+        return memory.get(key) != null;
+    }
+
+    // Main thread
+    void put(String key, Bitmap bitmap) {
+        // Added first: put may evict bitmap straight away if it alone exceeds the budget
+        cached.add(bitmap);
+        memory.put(key, bitmap);
+    }
+
+    // Main thread: tracks which bitmaps are on screen so eviction never recycles them
+    void onAttached(Bitmap bitmap) {
+        Integer count = displayed.get(bitmap);
+        displayed.put(bitmap, count == null ? 1 : count + 1);
+    }
+
+    void onDetached(Bitmap bitmap) {
+        Integer count = displayed.get(bitmap);
+        if (count == null) return;
+        if (count > 1) {
+            displayed.put(bitmap, count - 1);
+            return;
+        }
+        displayed.remove(bitmap);
+        // Already evicted while on screen: it can be reused now
+        if (!cached.contains(bitmap)) {
+            offerToPool(bitmap);
+        }
+    }
+
+    // Any thread: a pooled bitmap large enough to decode width x height into, or null
+    synchronized Bitmap takeReusable(int width, int height, Bitmap.Config config) {
+        int needed = width * height * bytesPerPixel(config);
+        for (int i = 0; i < pool.size(); i++) {
+            Bitmap candidate = pool.get(i);
+            if (candidate.getConfig() == config && candidate.getAllocationByteCount() >= needed) {
+                pool.remove(i);
+                poolBytes -= candidate.getAllocationByteCount();
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    synchronized void offerToPool(Bitmap bitmap) {
+        if (!bitmap.isMutable() || bitmap.isRecycled()) return;
+
+        int size = bitmap.getAllocationByteCount();
+        while (!pool.isEmpty() && poolBytes + size > maxPoolBytes) {
+            poolBytes -= pool.remove(0).getAllocationByteCount();
+        }
+        if (size <= maxPoolBytes) {
+            pool.add(bitmap);
+            poolBytes += size;
+        }
+    }
+
+    String getStats() {
+        long memoryHitCount = memoryHits.get();
+        long total = memoryHitCount + diskHits.get() + misses.get();
+        return String.format(Locale.US,
+                "memory hits %d, disk hits %d, misses %d (%.0f%% memory hit rate), %d KB cached, %d KB pooled",
+                memoryHitCount, diskHits.get(), misses.get(),
+                total == 0 ? 0f : 100f * memoryHitCount / total,
+                memory.size() / 1024, poolBytes / 1024);
+    }
+
+    private static int bytesPerPixel(Bitmap.Config config) {
+        if (config == Bitmap.Config.RGB_565 || config == Bitmap.Config.ARGB_4444) return 2;
+        if (config == Bitmap.Config.ALPHA_8) return 1;
+        return 4;
+    }
+}
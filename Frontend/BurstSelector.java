@@ -0,0 +1,147 @@
+package com.example.myapplication;
+
+import android.media.Image;
+import android.media.ImageReader;
+import android.os.Handler;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Picks the best frame of a capture burst.
+// Each frame is scored on its own worker as soon as it arrives, so scoring runs in parallel
+// across cores; only the best frame so far stays open, the rest go straight back to the reader.
+class BurstSelector implements ImageReader.OnImageAvailableListener {
+
+    interface Listener {
+        // Called on the camera handler; the listener owns (and must close) the frame
+        void onBestFrame(Image frame, FrameQuality quality, int framesScored);
+
+        void onBurstFailed();
+    }
+
+    static final int BURST_SIZE = 5;
+    // Best frame + frames being scored + one being acquired by the reader
+    static final int MAX_IMAGES = 4;
+
+    private static final long TIMEOUT_MS = 1500;
+
+    private final Handler handler;
+    private final Listener listener;
+    private final ExecutorService scorers;
+
+    private final Object lock = new Object();
+    private final Runnable timeout = this::onTimeout;
+
+    // Guarded by lock
+    private boolean active;
+    private int expected;
+    private int scored;
+    private Image best;
+    private FrameQuality bestQuality;
+
+    BurstSelector(Handler handler, Listener listener) {
+        this.handler = handler;
+        this.listener = listener;
+        int cores = Math.max(1, Math.min(MAX_IMAGES - 2, Runtime.getRuntime().availableProcessors() - 1));
+        scorers = Executors.newFixedThreadPool(cores, r -> new Thread(r, "Burst scoring"));
+    }
+
+    void start(int frameCount) {
+        synchronized (lock) {
+            releaseLocked();
+            active = true;
+            expected = frameCount;
+            scored = 0;
+        }
+        handler.postDelayed(timeout, TIMEOUT_MS);
+    }
+
+    void cancel() {
+        handler.removeCallbacks(timeout);
+        synchronized (lock) {
+            active = false;
+            releaseLocked();
+        }
+    }
+
+    void shutdown() {
+        cancel();
+        scorers.shutdownNow();
+    }
+
+    @Override
+    public void onImageAvailable(ImageReader reader) {
+        Image image;
+        try {
+            image = reader.acquireNextImage();
+        } catch (IllegalStateException e) {
+            // All reader buffers are held; this frame is skipped
+            return;
+        }
+        if (image == null) return;
+
+        synchronized (lock) {
+            if (!active) {
+                image.close();
+                return;
+            }
+        }
+        scorers.execute(() -> score(image));
+    }
+
+    private void score(Image image) {
+        FrameQuality quality = new FrameQuality();
+        Image.Plane luma = image.getPlanes()[0];
+        quality.measure(luma.getBuffer(), image.getWidth(), image.getHeight(), luma.getRowStride());
+
+        synchronized (lock) {
+            if (!active) {
+                image.close();
+                return;
+            }
+            scored++;
+            if (best == null || quality.isBetterThan(bestQuality)) {
+                if (best != null) best.close();
+                best = image;
+                bestQuality = quality;
+            } else {
+                image.close();
+            }
+            if (scored == expected) {
+                finishLocked();
+            }
+        }
+    }
+
+    private void onTimeout() {
+        synchronized (lock) {
+            // Frames dropped by the camera never arrive; settle for what was scored
+            if (active) finishLocked();
+        }
+    }
+
+    private void finishLocked() {
+        active = false;
+        handler.removeCallbacks(timeout);
+        Image frame = best;
+        FrameQuality quality = bestQuality;
+        int count = scored;
+        best = null;
+        bestQuality = null;
+        handler.post(() -> {
+            if (frame != null) {
+                listener.onBestFrame(frame, quality, count);
+            } else {
+                listener.onBurstFailed();
+            }
+        });
+    }
+
+    private void releaseLocked() {
+        if (best != null) {
+            best.close();
+            best = null;
+        }
+        bestQuality = null;
+    }
+}
@@ -8,10 +8,7 @@ import androidx.core.content.ContextCompat;
 import android.Manifest;
 import android.content.Intent;
 import android.content.pm.PackageManager;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.ImageFormat;
-import android.graphics.Matrix;
 import android.graphics.SurfaceTexture;
 import android.hardware.camera2.CameraAccessException;
 import android.hardware.camera2.CameraCaptureSession;
@@ -24,15 +21,17 @@ import android.hardware.camera2.TotalCaptureResult;
 import android.hardware.camera2.params.StreamConfigurationMap;
 import android.media.Image;
 import android.media.ImageReader;
+import android.net.Uri;
 import android.os.Bundle;
-import android.os.Environment;
 import android.os.Handler;
 import android.os.HandlerThread;
+import android.preference.PreferenceManager;
 import android.util.Size;
 import android.util.SparseIntArray;
 import android.view.Surface;
 import android.view.TextureView;
 import android.view.View;
+import android.widget.Button;
 import android.widget.ImageButton;
 import android.widget.ProgressBar;
 import android.widget.TextView;
@@ -43,17 +42,19 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 
-public class CameraActivity extends AppCompatActivity {
+public class CameraActivity extends AppCompatActivity implements BurstSelector.Listener {
 
     private static final int REQUEST_CAMERA_PERMISSION = 200;
+    // Camera2 only guarantees preview streams up to 1080p alongside a full-size still stream
+    private static final int MAX_PREVIEW_WIDTH = 1920;
+    private static final int MAX_PREVIEW_HEIGHT = 1080;
     private static final SparseIntArray ORIENTATIONS = new SparseIntArray();
 
     static {
@@ -67,13 +68,33 @@ public class CameraActivity extends AppCompatActivity {
     private ImageButton btnCapture;
     private ProgressBar progressBar;
     private TextView tvProcessing;
+    private TextView tvLiveResult;
+    private Button btnLive;
 
     private String cameraId;
     private CameraDevice cameraDevice;
     private CameraCaptureSession cameraCaptureSession;
     private CaptureRequest.Builder captureRequestBuilder;
+    // Built once per session so every shot goes out with the same request
+    private CaptureRequest.Builder stillRequestBuilder;
+    private CaptureRequest.Builder burstRequestBuilder;
     private Size imageDimension;
     private ImageReader imageReader;
+    private int sensorOrientation;
+
+    // YUV capture feeds the frame straight into the model input tensor instead of JPEG -> Bitmap
+    private boolean yuvCapture;
+    private final YuvTensorConverter yuvConverter = new YuvTensorConverter(SkinClassifier.INPUT_SIZE);
+
+    // Live mode: a small analysis stream attached to the repeating preview request
+    private ImageReader analysisReader;
+    private LiveAnalyzer liveAnalyzer;
+
+    // Burst mode: several frames go to the analysis stream and only the best one is classified
+    private boolean burstCapture;
+    private BurstSelector burstSelector;
+    // Trace of the capture in progress; written on the UI thread, read on the camera thread
+    private volatile ScanTracer.ScanTrace captureTrace;
 
     private Handler mBackgroundHandler;
     private HandlerThread mBackgroundThread;
@@ -87,9 +108,19 @@ public class CameraActivity extends AppCompatActivity {
         btnCapture = findViewById(R.id.btnCapture);
         progressBar = findViewById(R.id.progressBar);
         tvProcessing = findViewById(R.id.tvProcessing);
+        tvLiveResult = findViewById(R.id.tvLiveResult);
+        btnLive = findViewById(R.id.btnLive);
 
         textureView.setSurfaceTextureListener(textureListener);
 
+        liveAnalyzer = new LiveAnalyzer(InferenceEngine.get(this), (top, fps, dropped) ->
+                tvLiveResult.setText(String.format(Locale.getDefault(),
+                        "%s %.0f%%\n%.1f fps · %d dropped", top.label, top.confidence * 100, fps, dropped)));
+        btnLive.setOnClickListener(v -> setLiveMode(!liveAnalyzer.isRunning()));
+
+        yuvCapture = PreferenceManager.getDefaultSharedPreferences(this).getBoolean("yuvCapture", false);
+        burstCapture = PreferenceManager.getDefaultSharedPreferences(this).getBoolean("burstCapture", false);
+
         btnCapture.setOnClickListener(v -> {
             if (cameraDevice != null) {
                 takePicture();
@@ -126,33 +157,53 @@ public class CameraActivity extends AppCompatActivity {
 
         @Override
         public void onDisconnected(@NonNull CameraDevice camera) {
-            cameraDevice.close();
+            closeCamera();
         }
 
         @Override
         public void onError(@NonNull CameraDevice camera, int error) {
-            cameraDevice.close();
-            cameraDevice = null;
+            closeCamera();
         }
     };
 
+    private void setLiveMode(boolean enabled) {
+        if (enabled) {
+            liveAnalyzer.start(getFrameRotation());
+            tvLiveResult.setText("Analyzing...");
+            tvLiveResult.setVisibility(View.VISIBLE);
+        } else {
+            liveAnalyzer.stop();
+            tvLiveResult.setVisibility(View.GONE);
+        }
+        btnLive.setText(enabled ? "Stop" : "Live");
+        if (cameraCaptureSession != null) {
+            updatePreview();
+        }
+    }
+
     private void takePicture() {
-        if (cameraDevice == null) return;
+        if (cameraDevice == null || stillRequestBuilder == null || burstRequestBuilder == null) return;
+        if (liveAnalyzer.isRunning()) {
+            setLiveMode(false);
+        }
 
+        captureTrace = ScanTracer.start();
+        DiseaseCatalog.get(this).preload();
         runOnUiThread(() -> {
             btnCapture.setVisibility(View.GONE);
             progressBar.setVisibility(View.VISIBLE);
             tvProcessing.setVisibility(View.VISIBLE);
         });
 
-        try {
-            CaptureRequest.Builder captureBuilder = cameraDevice.createCaptureRequest(CameraDevice.TEMPLATE_STILL_CAPTURE);
-            captureBuilder.addTarget(imageReader.getSurface());
-            captureBuilder.set(CaptureRequest.CONTROL_MODE, CaptureRequest.CONTROL_MODE_AUTO);
+        if (burstCapture) {
+            takeBurst();
+            return;
+        }
 
-            // Orientation
+        try {
+            // Orientation (only honoured by the JPEG encoder; YUV frames are rotated during preprocessing)
             int rotation = getWindowManager().getDefaultDisplay().getRotation();
-            captureBuilder.set(CaptureRequest.JPEG_ORIENTATION, ORIENTATIONS.get(rotation));
+            stillRequestBuilder.set(CaptureRequest.JPEG_ORIENTATION, ORIENTATIONS.get(rotation));
 
             CameraCaptureSession.CaptureCallback captureCallback = new CameraCaptureSession.CaptureCallback() {
                 @Override
@@ -160,12 +211,14 @@ public class CameraActivity extends AppCompatActivity {
                                                @NonNull CaptureRequest request,
                                                @NonNull TotalCaptureResult result) {
                     super.onCaptureCompleted(session, request, result);
+                    ScanTracer.mark(captureTrace, ScanTracer.Stage.CAPTURE);
                     // Processing happens in ImageReader callback
                 }
             };
 
-            cameraCaptureSession.stopRepeating();
-            cameraCaptureSession.capture(captureBuilder.build(), captureCallback, null);
+            // The still stream is already configured, so the repeating preview keeps running
+            // and the shot is interleaved with it
+            cameraCaptureSession.capture(stillRequestBuilder.build(), captureCallback, mBackgroundHandler);
 
         } catch (CameraAccessException e) {
             e.printStackTrace();
@@ -173,6 +226,50 @@ public class CameraActivity extends AppCompatActivity {
         }
     }
 
+    // Fires a burst at the analysis stream; BurstSelector hands back the sharpest, best-exposed frame
+    private void takeBurst() {
+        try {
+            List<CaptureRequest> requests = new ArrayList<>(BurstSelector.BURST_SIZE);
+            CaptureRequest request = burstRequestBuilder.build();
+            for (int i = 0; i < BurstSelector.BURST_SIZE; i++) {
+                requests.add(request);
+            }
+
+            analysisReader.setOnImageAvailableListener(burstSelector, mBackgroundHandler);
+            burstSelector.start(BurstSelector.BURST_SIZE);
+            cameraCaptureSession.captureBurst(requests, null, mBackgroundHandler);
+        } catch (CameraAccessException e) {
+            e.printStackTrace();
+            burstSelector.cancel();
+            analysisReader.setOnImageAvailableListener(liveAnalyzer, mBackgroundHandler);
+            resetCaptureUI();
+        }
+    }
+
+    @Override
+    public void onBestFrame(Image frame, FrameQuality quality, int framesScored) {
+        if (analysisReader == null) {
+            frame.close();
+            return;
+        }
+        analysisReader.setOnImageAvailableListener(liveAnalyzer, mBackgroundHandler);
+        // For bursts the acquire stage spans the whole burst plus scoring
+        ScanTracer.mark(captureTrace, ScanTracer.Stage.ACQUIRE);
+        if (!quality.isAcceptable()) {
+            runOnUiThread(() -> Toast.makeText(this, "Image may be blurry or poorly lit. Hold steady for best results.",
+                    Toast.LENGTH_SHORT).show());
+        }
+        processYuvImage(frame);
+    }
+
+    @Override
+    public void onBurstFailed() {
+        if (analysisReader == null) return;
+        analysisReader.setOnImageAvailableListener(liveAnalyzer, mBackgroundHandler);
+        resetCaptureUI();
+        runOnUiThread(() -> Toast.makeText(this, "Capture failed", Toast.LENGTH_SHORT).show());
+    }
+
     protected void createCameraPreview() {
         try {
             SurfaceTexture texture = textureView.getSurfaceTexture();
@@ -182,12 +279,24 @@ public class CameraActivity extends AppCompatActivity {
             captureRequestBuilder = cameraDevice.createCaptureRequest(CameraDevice.TEMPLATE_PREVIEW);
             captureRequestBuilder.addTarget(surface);
 
-            cameraDevice.createCaptureSession(Arrays.asList(surface), new CameraCaptureSession.StateCallback() {
+            cameraDevice.createCaptureSession(
+                    Arrays.asList(surface, imageReader.getSurface(), analysisReader.getSurface()), new CameraCaptureSession.StateCallback() {
                 @Override
                 public void onConfigured(@NonNull CameraCaptureSession session) {
                     if (cameraDevice == null) return;
 
                     cameraCaptureSession = session;
+                    try {
+                        stillRequestBuilder = cameraDevice.createCaptureRequest(CameraDevice.TEMPLATE_STILL_CAPTURE);
+                        stillRequestBuilder.addTarget(imageReader.getSurface());
+                        stillRequestBuilder.set(CaptureRequest.CONTROL_MODE, CaptureRequest.CONTROL_MODE_AUTO);
+
+                        burstRequestBuilder = cameraDevice.createCaptureRequest(CameraDevice.TEMPLATE_STILL_CAPTURE);
+                        burstRequestBuilder.addTarget(analysisReader.getSurface());
+                        burstRequestBuilder.set(CaptureRequest.CONTROL_MODE, CaptureRequest.CONTROL_MODE_AUTO);
+                    } catch (CameraAccessException e) {
+                        e.printStackTrace();
+                    }
                     updatePreview();
                 }
 
@@ -202,9 +311,14 @@ public class CameraActivity extends AppCompatActivity {
     }
 
     private void updatePreview() {
-        if (cameraDevice == null) return;
+        if (cameraDevice == null || cameraCaptureSession == null) return;
 
         captureRequestBuilder.set(CaptureRequest.CONTROL_MODE, CaptureRequest.CONTROL_MODE_AUTO);
+        if (liveAnalyzer.isRunning()) {
+            captureRequestBuilder.addTarget(analysisReader.getSurface());
+        } else {
+            captureRequestBuilder.removeTarget(analysisReader.getSurface());
+        }
 
         try {
             cameraCaptureSession.setRepeatingRequest(captureRequestBuilder.build(), null, mBackgroundHandler);
@@ -219,7 +333,8 @@ public class CameraActivity extends AppCompatActivity {
             cameraId = manager.getCameraIdList()[0];
             CameraCharacteristics characteristics = manager.getCameraCharacteristics(cameraId);
             StreamConfigurationMap map = characteristics.get(CameraCharacteristics.SCALER_STREAM_CONFIGURATION_MAP);
-            imageDimension = map.getOutputSizes(SurfaceTexture.class)[0];
+            Integer orientation = characteristics.get(CameraCharacteristics.SENSOR_ORIENTATION);
+            sensorOrientation = orientation != null ? orientation : 90;
 
             // Check permission
             if (ContextCompat.checkSelfPermission(this, Manifest.permission.CAMERA) != PackageManager.PERMISSION_GRANTED) {
@@ -227,33 +342,38 @@ public class CameraActivity extends AppCompatActivity {
                 return;
             }
 
-            // Setup ImageReader
-            imageReader = ImageReader.newInstance(imageDimension.getWidth(), imageDimension.getHeight(),
-                    ImageFormat.JPEG, 1);
-            imageReader.setOnImageAvailableListener(reader -> {
-                Image image = null;
-                try {
-                    image = reader.acquireLatestImage();
-                    ByteBuffer buffer = image.getPlanes()[0].getBuffer();
-                    byte[] bytes = new byte[buffer.capacity()];
-                    buffer.get(bytes);
-
-                    // Convert to bitmap
-                    Bitmap bitmap = BitmapFactory.decodeByteArray(bytes, 0, bytes.length);
-
-                    // Rotate if needed
-                    bitmap = rotateBitmap(bitmap, 90);
-
-                    // Process the captured image
-                    processCapturedImage(bitmap);
-
-                } finally {
+            // Setup ImageReader; the preview is sized to match the still stream's aspect ratio
+            Size stillSize;
+            if (yuvCapture) {
+                stillSize = chooseYuvSize(map.getOutputSizes(ImageFormat.YUV_420_888));
+                imageReader = ImageReader.newInstance(stillSize.getWidth(), stillSize.getHeight(),
+                        ImageFormat.YUV_420_888, 2);
+                imageReader.setOnImageAvailableListener(reader -> {
+                    Image image = reader.acquireLatestImage();
                     if (image != null) {
-                        image.close();
+                        ScanTracer.mark(captureTrace, ScanTracer.Stage.ACQUIRE);
+                        processYuvImage(image);
                     }
-                    resetCaptureUI();
-                }
-            }, mBackgroundHandler);
+                }, mBackgroundHandler);
+            } else {
+                stillSize = chooseStillSize(map.getOutputSizes(ImageFormat.JPEG));
+                imageReader = ImageReader.newInstance(stillSize.getWidth(), stillSize.getHeight(),
+                        ImageFormat.JPEG, 2);
+                imageReader.setOnImageAvailableListener(reader -> {
+                    Image image = reader.acquireNextImage();
+                    if (image != null) {
+                        processJpegImage(image);
+                    }
+                }, mBackgroundHandler);
+            }
+            imageDimension = choosePreviewSize(map.getOutputSizes(SurfaceTexture.class),
+                    textureView.getWidth(), textureView.getHeight(), stillSize);
+
+            Size analysisSize = chooseYuvSize(map.getOutputSizes(ImageFormat.YUV_420_888));
+            analysisReader = ImageReader.newInstance(analysisSize.getWidth(), analysisSize.getHeight(),
+                    ImageFormat.YUV_420_888, Math.max(LiveAnalyzer.MAX_IMAGES, BurstSelector.MAX_IMAGES));
+            analysisReader.setOnImageAvailableListener(liveAnalyzer, mBackgroundHandler);
+            burstSelector = new BurstSelector(mBackgroundHandler, this);
 
             manager.openCamera(cameraId, stateCallback, null);
         } catch (CameraAccessException e) {
@@ -261,44 +381,170 @@ public class CameraActivity extends AppCompatActivity {
         }
     }
 
-    private void processCapturedImage(Bitmap bitmap) {
+    // Saves the encoded JPEG as-is (no decode/rotate/re-encode), then classifies the saved file
+    // on-device or on the server, whichever is currently faster
+    private void processJpegImage(Image image) {
+        ScanTracer.ScanTrace trace = captureTrace;
+        File imageFile;
         try {
-            // Create a temporary file to store the image
-            File tempFile = createTempImageFile();
-
-            // Save bitmap to file
-            FileOutputStream out = new FileOutputStream(tempFile);
-            bitmap.compress(Bitmap.CompressFormat.JPEG, 90, out);
-            out.close();
-
-            // Pass the file path to ResultActivity
-            Intent intent = new Intent(CameraActivity.this, ResultActivity.class);
-            intent.putExtra("image_path", tempFile.getAbsolutePath());
-            startActivity(intent);
-
+            // The camera may honour JPEG_ORIENTATION only as an EXIF tag, so the bytes go to disk
+            // untouched and every decode turns them upright (ImagePreprocessor.exifRotation)
+            imageFile = CaptureStorage.get(this).newCaptureFile();
+            try (FileOutputStream out = new FileOutputStream(imageFile)) {
+                out.getChannel().write(image.getPlanes()[0].getBuffer());
+            }
+            // For JPEG the acquire stage includes the write, since the file is the frame we classify
+            ScanTracer.mark(trace, ScanTracer.Stage.ACQUIRE);
         } catch (IOException e) {
             e.printStackTrace();
-            Toast.makeText(this, "Failed to save image", Toast.LENGTH_SHORT).show();
-        } finally {
             resetCaptureUI();
+            runOnUiThread(() -> Toast.makeText(this, "Failed to save image", Toast.LENGTH_SHORT).show());
+            return;
+        } finally {
+            image.close();
         }
+
+        Uri imageUri = Uri.fromFile(imageFile);
+        ScanQueue queue = ScanQueue.get(this);
+        String scanKey = queue.enqueue(imageUri);
+        HybridClassifier.get(this).classify(imageFile, trace, new InferenceEngine.Callback() {
+            @Override
+            public void onResult(Prediction prediction) {
+                showResult(prediction, imageUri.toString(), scanKey, trace);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                queue.release(scanKey);
+                e.printStackTrace();
+                resetCaptureUI();
+                Toast.makeText(CameraActivity.this, "Analysis failed", Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    // Hands the frame to the inference thread, which writes it directly into the model input tensor
+    private void processYuvImage(Image image) {
+        int rotation = getFrameRotation();
+        ScanTracer.ScanTrace trace = captureTrace;
+        InferenceEngine.get(this).classify(new InferenceEngine.InputWriter() {
+            @Override
+            public void write(ByteBuffer input) {
+                writeYuvToTensor(image, rotation, input);
+            }
+
+            @Override
+            public void release() {
+                image.close();
+            }
+        }, trace, new InferenceEngine.Callback() {
+            @Override
+            public void onResult(Prediction prediction) {
+                showResult(prediction, null, null, trace);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                e.printStackTrace();
+                resetCaptureUI();
+                Toast.makeText(CameraActivity.this, "Analysis failed", Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    // scanKey is the ScanQueue key of a journaled scan, or null when the frame was never saved
+    private void showResult(Prediction prediction, String imageUri, String scanKey, ScanTracer.ScanTrace trace) {
+        resetCaptureUI();
+        HistoryItem item = HistoryRepository.newItem(prediction, imageUri);
+        item.scanKey = scanKey;
+        HistoryRepository.get(this).insertAll(Collections.singletonList(item),
+                scanKey != null ? () -> ScanQueue.get(this).complete(scanKey) : null);
+        ScanTracer.mark(trace, ScanTracer.Stage.PERSIST);
+        // A scan that finishes after the user left is still kept, just not shown
+        if (isFinishing()) return;
+        prediction.attachTrace(trace);
+
+        Intent intent = new Intent(this, ResultActivity.class);
+        intent.putExtra("imageUri", imageUri);
+        intent.putExtra(Prediction.EXTRA, prediction);
+        startActivity(intent);
     }
 
-    private File createTempImageFile() throws IOException {
-        // Create an image file name
-        String timeStamp = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.getDefault()).format(new Date());
-        String imageFileName = "JPEG_" + timeStamp + "_";
-        File storageDir = getExternalFilesDir(Environment.DIRECTORY_PICTURES);
-        return File.createTempFile(
-                imageFileName,  /* prefix */
-                ".jpg",         /* suffix */
-                storageDir      /* directory */
-        );
+    private void writeYuvToTensor(Image image, int rotation, ByteBuffer input) {
+        Image.Plane[] planes = image.getPlanes();
+        yuvConverter.convert(planes[0].getBuffer(), planes[1].getBuffer(), planes[2].getBuffer(),
+                image.getWidth(), image.getHeight(),
+                planes[0].getRowStride(), planes[1].getRowStride(), planes[1].getPixelStride(),
+                rotation, input);
     }
-    private Bitmap rotateBitmap(Bitmap bitmap, int degree) {
-        Matrix matrix = new Matrix();
-        matrix.postRotate(degree);
-        return Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, true);
+
+    // Clockwise rotation that makes a sensor frame upright for the current display rotation
+    private int getFrameRotation() {
+        int displayRotation = getWindowManager().getDefaultDisplay().getRotation();
+        int displayDegrees = displayRotation * 90; // Surface.ROTATION_* are 0..3
+        return (sensorOrientation - displayDegrees + 360) % 360;
+    }
+
+    // Smallest YUV size whose short side still leaves 2x headroom over the model input
+    private Size chooseYuvSize(Size[] sizes) {
+        int minSide = SkinClassifier.INPUT_SIZE * 2;
+        Size best = null;
+        Size largest = sizes[0];
+        for (Size size : sizes) {
+            long area = (long) size.getWidth() * size.getHeight();
+            if (area > (long) largest.getWidth() * largest.getHeight()) {
+                largest = size;
+            }
+            if (Math.min(size.getWidth(), size.getHeight()) >= minSide
+                    && (best == null || area < (long) best.getWidth() * best.getHeight())) {
+                best = size;
+            }
+        }
+        return best != null ? best : largest;
+    }
+
+    // Largest still size, for the most detail in the saved photo
+    private Size chooseStillSize(Size[] sizes) {
+        Size largest = sizes[0];
+        for (Size size : sizes) {
+            if ((long) size.getWidth() * size.getHeight() > (long) largest.getWidth() * largest.getHeight()) {
+                largest = size;
+            }
+        }
+        return largest;
+    }
+
+    // Largest preview size with the still aspect ratio that fits both the view and 1080p.
+    // Sizes are in sensor orientation, so the view is swapped when the sensor is rotated.
+    private Size choosePreviewSize(Size[] sizes, int viewWidth, int viewHeight, Size stillSize) {
+        if (getFrameRotation() % 180 != 0) {
+            int swap = viewWidth;
+            viewWidth = viewHeight;
+            viewHeight = swap;
+        }
+        int maxWidth = Math.min(Math.max(viewWidth, 1), MAX_PREVIEW_WIDTH);
+        int maxHeight = Math.min(Math.max(viewHeight, 1), MAX_PREVIEW_HEIGHT);
+
+        Size best = null;
+        Size fallback = null;
+        for (Size size : sizes) {
+            boolean fits = size.getWidth() <= MAX_PREVIEW_WIDTH && size.getHeight() <= MAX_PREVIEW_HEIGHT;
+            boolean sameAspect = (long) size.getWidth() * stillSize.getHeight()
+                    == (long) size.getHeight() * stillSize.getWidth();
+            if (!fits || !sameAspect) continue;
+
+            // Prefer the smallest size covering the view; otherwise the largest one below it
+            boolean coversView = size.getWidth() >= maxWidth && size.getHeight() >= maxHeight;
+            if (coversView) {
+                if (best == null || size.getWidth() < best.getWidth()) best = size;
+            } else if (fallback == null || size.getWidth() > fallback.getWidth()) {
+                fallback = size;
+            }
+        }
+        if (best != null) return best;
+        if (fallback != null) return fallback;
+        // No preview size shares the still aspect ratio
+        return chooseYuvSize(sizes);
     }
 
     private void resetCaptureUI() {
@@ -333,10 +579,39 @@ public class CameraActivity extends AppCompatActivity {
 
     @Override
     protected void onPause() {
+        if (liveAnalyzer.isRunning()) {
+            setLiveMode(false);
+        }
+        closeCamera();
         stopBackgroundThread();
         super.onPause();
     }
 
+    private void closeCamera() {
+        if (cameraCaptureSession != null) {
+            cameraCaptureSession.close();
+            cameraCaptureSession = null;
+        }
+        stillRequestBuilder = null;
+        burstRequestBuilder = null;
+        if (burstSelector != null) {
+            burstSelector.shutdown();
+            burstSelector = null;
+        }
+        if (cameraDevice != null) {
+            cameraDevice.close();
+            cameraDevice = null;
+        }
+        if (imageReader != null) {
+            imageReader.close();
+            imageReader = null;
+        }
+        if (analysisReader != null) {
+            analysisReader.close();
+            analysisReader = null;
+        }
+    }
+
     private void startBackgroundThread() {
         mBackgroundThread = new HandlerThread("Camera Background");
         mBackgroundThread.start();
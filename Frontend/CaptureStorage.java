@@ -0,0 +1,258 @@
+package com.example.myapplication;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.media.ExifInterface;
+import android.net.Uri;
+import android.os.Environment;
+import android.os.Handler;
+import android.os.Looper;
+import android.preference.PreferenceManager;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// Owns the JPEGs CameraActivity captures into the app's Pictures directory, and the copies of
+// gallery picks made so a journaled scan can still read its image after process death.
+// A background compaction pass (shortly after launch, after history is cleared, then every few
+// hours) deletes captures no history row or queued scan refers to, re-encodes captures unused for
+// a month at a lower resolution, and evicts the least recently used captures once the directory
+// exceeds its byte quota. History thumbnails are stored separately, so evicted scans still show in the list.
+// Photos the gallery flow inserts into MediaStore belong to the user and are never touched.
+final class CaptureStorage {
+
+    private static final String TAG = "CaptureStorage";
+
+    static final long QUOTA_BYTES = 512L * 1024 * 1024;
+    // A capture is written before its scan is journaled; younger files are never treated as orphans
+    static final long ORPHAN_GRACE_MS = TimeUnit.HOURS.toMillis(1);
+    static final long TRANSCODE_IDLE_MS = TimeUnit.DAYS.toMillis(30);
+    // Long side of a transcoded capture: still well above what the result screen displays
+    static final int TRANSCODE_MAX_SIDE = 1600;
+    static final int TRANSCODE_QUALITY = 80;
+
+    private static final long STARTUP_DELAY_MS = TimeUnit.SECONDS.toMillis(30);
+    private static final long INTERVAL_MS = TimeUnit.HOURS.toMillis(6);
+    private static final String PREFIX = "JPEG_";
+
+    public interface ImportCallback {
+        // Called on the main thread; file is null if the image could not be read
+        void onImported(File file);
+    }
+
+    private static CaptureStorage instance;
+
+    private final Context appContext;
+    private final SharedPreferences preferences;
+    private final File dir;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "Capture storage");
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    // Kept apart from compaction, which can run for a while, because the user is waiting on an import
+    private final ExecutorService importer = Executors.newSingleThreadExecutor(r -> new Thread(r, "Capture import"));
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Guarded by this
+    private ScheduledFuture<?> scheduled;
+
+    private CaptureStorage(Context context) {
+        appContext = context.getApplicationContext();
+        preferences = PreferenceManager.getDefaultSharedPreferences(appContext);
+        File pictures = appContext.getExternalFilesDir(Environment.DIRECTORY_PICTURES);
+        dir = pictures != null ? pictures : new File(appContext.getFilesDir(), "captures");
+    }
+
+    static synchronized CaptureStorage get(Context context) {
+        if (instance == null) {
+            instance = new CaptureStorage(context);
+        }
+        return instance;
+    }
+
+    File newCaptureFile() throws IOException {
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        String timeStamp = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.US).format(new Date());
+        return File.createTempFile(PREFIX + timeStamp + "_", ".jpg", dir);
+    }
+
+    // Copies a picked image into the capture directory. A gallery grant ends with the process, so
+    // the scan is journaled against the copy rather than the picked URI
+    void importImage(Uri source, ImportCallback callback) {
+        importer.execute(() -> {
+            File file = null;
+            try {
+                file = newCaptureFile();
+                try (InputStream in = appContext.getContentResolver().openInputStream(source);
+                     OutputStream out = new FileOutputStream(file)) {
+                    if (in == null) throw new IOException("Cannot open " + source);
+                    byte[] buffer = new byte[64 * 1024];
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        out.write(buffer, 0, read);
+                    }
+                }
+            } catch (IOException | SecurityException e) {
+                e.printStackTrace();
+                if (file != null) file.delete();
+                file = null;
+            }
+            File imported = file;
+            mainHandler.post(() -> callback.onImported(imported));
+        });
+    }
+
+    // Records that a capture was viewed: its modification time is its last use, which both
+    // eviction and the transcode age go by
+    void markUsed(Uri uri) {
+        if (!"file".equals(uri.getScheme()) || uri.getPath() == null) return;
+        File file = new File(uri.getPath());
+        if (!dir.equals(file.getParentFile())) return;
+        executor.execute(() -> file.setLastModified(System.currentTimeMillis()));
+    }
+
+    // Called at launch; later passes reschedule themselves
+    void start() {
+        schedule(STARTUP_DELAY_MS);
+    }
+
+    // Runs a pass soon, e.g. once history has been cleared
+    void compactSoon() {
+        schedule(0);
+    }
+
+    private synchronized void schedule(long delayMillis) {
+        if (scheduled != null) {
+            if (scheduled.getDelay(TimeUnit.MILLISECONDS) <= delayMillis) return;
+            scheduled.cancel(false);
+        }
+        scheduled = executor.schedule(this::runCompaction, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void runCompaction() {
+        synchronized (this) {
+            scheduled = null;
+        }
+        try {
+            compact();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        schedule(INTERVAL_MS);
+    }
+
+    private void compact() throws Exception {
+        File[] files = dir.listFiles((d, name) -> name.startsWith(PREFIX) && name.endsWith(".jpg"));
+        if (files == null || files.length == 0) return;
+
+        // Queue first, then history: a scan leaves the queue only after its row is saved, so no
+        // capture can slip between the two snapshots
+        Set<String> referenced = ScanQueue.get(appContext).pendingImageUris().get();
+        Set<String> pending = new HashSet<>(referenced);
+        referenced.addAll(HistoryRepository.get(appContext).imageUris().get());
+
+        long now = System.currentTimeMillis();
+        boolean transcode = preferences.getBoolean("shrinkOldCaptures", true);
+        List<File> kept = new ArrayList<>(files.length);
+        long total = 0;
+        int orphans = 0;
+        int transcoded = 0;
+        for (File file : files) {
+            String uri = Uri.fromFile(file).toString();
+            long idle = now - file.lastModified();
+            if (!referenced.contains(uri) && idle > ORPHAN_GRACE_MS) {
+                if (file.delete()) orphans++;
+                continue;
+            }
+            if (transcode && idle > TRANSCODE_IDLE_MS && !pending.contains(uri) && shrink(file)) {
+                transcoded++;
+            }
+            kept.add(file);
+            total += file.length();
+        }
+
+        // Least recently used first (see markUsed)
+        int evicted = 0;
+        if (total > QUOTA_BYTES) {
+            Collections.sort(kept, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+            for (File file : kept) {
+                if (total <= QUOTA_BYTES) break;
+                if (pending.contains(Uri.fromFile(file).toString())) continue;
+                long length = file.length();
+                if (file.delete()) {
+                    total -= length;
+                    evicted++;
+                }
+            }
+        }
+
+        if (orphans + transcoded + evicted > 0) {
+            Log.i(TAG, "Deleted " + orphans + " orphans, shrank " + transcoded + ", evicted " + evicted
+                    + "; " + total / (1024 * 1024) + " MB in use");
+        }
+    }
+
+    // Re-encodes file in place at TRANSCODE_MAX_SIDE; false if it was already small enough
+    private boolean shrink(File file) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(file.getPath(), options);
+        int longSide = Math.max(options.outWidth, options.outHeight);
+        if (longSide <= TRANSCODE_MAX_SIDE) return false;
+
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = 1;
+        while (longSide / (options.inSampleSize * 2) >= TRANSCODE_MAX_SIDE) {
+            options.inSampleSize *= 2;
+        }
+        Bitmap bitmap = BitmapFactory.decodeFile(file.getPath(), options);
+        if (bitmap == null) return false;
+
+        // Re-encoding drops EXIF, and the camera records rotation there
+        String orientation = new ExifInterface(file.getPath()).getAttribute(ExifInterface.TAG_ORIENTATION);
+        long lastModified = file.lastModified();
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            bitmap.compress(Bitmap.CompressFormat.JPEG, TRANSCODE_QUALITY, out);
+        } finally {
+            bitmap.recycle();
+        }
+        if (temp.length() >= file.length()) {
+            temp.delete();
+            return false;
+        }
+        if (orientation != null) {
+            ExifInterface exif = new ExifInterface(temp.getPath());
+            exif.setAttribute(ExifInterface.TAG_ORIENTATION, orientation);
+            exif.saveAttributes();
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Cannot replace " + file);
+        }
+        file.setLastModified(lastModified);
+        return true;
+    }
+}
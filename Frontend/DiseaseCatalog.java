@@ -0,0 +1,262 @@
+package com.example.myapplication;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// The condition catalog shown by DiseaseInfoActivity, bundled as one compact asset written by
+// "Machine Learning/export_catalog.py". The asset is memory-mapped and only its header is read
+// when it opens; an entry is decoded the first time it is shown or searched, and its symptom and
+// treatment lines are joined once at that point. Mapping and the search index run on one
+// background thread; callbacks are delivered on the main thread.
+final class DiseaseCatalog {
+
+    interface LoadCallback {
+        void onLoaded();
+
+        void onError(Exception e);
+    }
+
+    interface SearchCallback {
+        void onSearchReady(TextIndex index);
+    }
+
+    static final String ASSET = "disease_catalog.bin";
+
+    private static final int MAGIC = 0x53444331; // "SDC1"
+    private static final int HEADER_BYTES = 8;
+
+    static final class Disease {
+        final String name;
+        final String image;
+        final String description;
+        // One line per item, ready to hand to a TextView
+        final String symptoms;
+        final String treatments;
+
+        Disease(String name, String image, String description, String symptoms, String treatments) {
+            this.name = name;
+            this.image = image;
+            this.description = description;
+            this.symptoms = symptoms;
+            this.treatments = treatments;
+        }
+    }
+
+    private static DiseaseCatalog instance;
+
+    private final Context appContext;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService io = Executors.newSingleThreadExecutor(r -> new Thread(r, "Disease catalog"));
+
+    // Set once on the io thread; entries are sorted by name, case-insensitively
+    private volatile ByteBuffer data;
+    private volatile int count;
+
+    // Catalog index of each model class, indexed like SkinClassifier.CLASS_NAMES (-1 if missing).
+    // Written last in open(), so it also marks the catalog as loaded
+    private volatile int[] classEntries;
+
+    // Guarded by this
+    private Disease[] decoded;
+
+    // io thread only; immutable once built
+    private TextIndex searchIndex;
+
+    private DiseaseCatalog(Context context) {
+        appContext = context.getApplicationContext();
+    }
+
+    static synchronized DiseaseCatalog get(Context context) {
+        if (instance == null) {
+            instance = new DiseaseCatalog(context);
+        }
+        return instance;
+    }
+
+    // Maps the asset if that has not happened yet; the lookups below are valid once onLoaded runs
+    void load(LoadCallback callback) {
+        io.execute(() -> {
+            try {
+                open();
+                mainHandler.post(callback::onLoaded);
+            } catch (IOException | RuntimeException e) {
+                mainHandler.post(() -> callback.onError(e));
+            }
+        });
+    }
+
+    // Maps the catalog and decodes the entry of every model class, so the result screen's details
+    // are ready by the time inference finishes; call when a scan starts
+    void preload() {
+        io.execute(() -> {
+            try {
+                open();
+                for (int entry : classEntries) {
+                    if (entry >= 0) get(entry);
+                }
+            } catch (IOException | RuntimeException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    // Builds the index over every entry once, after which it is shared by every screen
+    void loadSearchIndex(SearchCallback callback) {
+        io.execute(() -> {
+            try {
+                open();
+                if (searchIndex == null) {
+                    TextIndex index = new TextIndex();
+                    for (int i = 0; i < count; i++) {
+                        Disease disease = get(i);
+                        index.add(i, disease.name + ' ' + disease.description + ' '
+                                + disease.symptoms + ' ' + disease.treatments);
+                    }
+                    searchIndex = index;
+                }
+                TextIndex index = searchIndex;
+                mainHandler.post(() -> callback.onSearchReady(index));
+            } catch (IOException | RuntimeException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    boolean isLoaded() {
+        return classEntries != null;
+    }
+
+    int size() {
+        return count;
+    }
+
+    // Decodes on first use; any thread
+    synchronized Disease get(int index) {
+        Disease disease = decoded[index];
+        if (disease == null) {
+            ByteBuffer in = data.duplicate();
+            in.position(recordOffset(index));
+            disease = new Disease(readString(in), readString(in), readString(in), readLines(in), readLines(in));
+            decoded[index] = disease;
+        }
+        return disease;
+    }
+
+    // Catalog index for a model class without searching; -1 if the catalog has no entry for it
+    int indexOfClass(int classIndex) {
+        return classEntries[classIndex];
+    }
+
+    // Binary search of the name index without decoding entries; -1 if name is not in the catalog
+    int indexOf(String name) {
+        String key = name.toLowerCase(Locale.ROOT);
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = nameAt(mid).toLowerCase(Locale.ROOT).compareTo(key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private String nameAt(int index) {
+        ByteBuffer in = data.duplicate();
+        in.position(recordOffset(index));
+        return readString(in);
+    }
+
+    private int recordOffset(int index) {
+        return data.getInt(HEADER_BYTES + 4 * index);
+    }
+
+    private void open() throws IOException {
+        if (classEntries != null) return;
+
+        ByteBuffer buffer;
+        try {
+            buffer = mapAsset();
+        } catch (FileNotFoundException e) {
+            // openFd only works for assets stored uncompressed
+            buffer = readAsset();
+        }
+        if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Unsupported disease catalog");
+        }
+        int entries = buffer.getInt(4);
+        if (entries < 0 || HEADER_BYTES + 4L * entries > buffer.limit()) {
+            throw new IOException("Corrupt disease catalog");
+        }
+
+        synchronized (this) {
+            decoded = new Disease[entries];
+        }
+        count = entries;
+        data = buffer;
+
+        int[] classes = new int[SkinClassifier.CLASS_NAMES.length];
+        for (int i = 0; i < classes.length; i++) {
+            classes[i] = indexOf(SkinClassifier.CLASS_NAMES[i]);
+        }
+        classEntries = classes;
+    }
+
+    private ByteBuffer mapAsset() throws IOException {
+        try (AssetFileDescriptor fd = appContext.getAssets().openFd(ASSET);
+             FileInputStream in = new FileInputStream(fd.getFileDescriptor());
+             FileChannel channel = in.getChannel()) {
+            // The mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, fd.getStartOffset(), fd.getDeclaredLength());
+        }
+    }
+
+    private ByteBuffer readAsset() throws IOException {
+        try (InputStream in = appContext.getAssets().open(ASSET)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(in.available(), 4096));
+            byte[] chunk = new byte[16 * 1024];
+            int read;
+            while ((read = in.read(chunk)) != -1) {
+                out.write(chunk, 0, read);
+            }
+            return ByteBuffer.wrap(out.toByteArray());
+        }
+    }
+
+    // u16 byte length, then UTF-8
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // u16 count, then that many strings, joined with newlines
+    private static String readLines(ByteBuffer in) {
+        int lines = in.getShort() & 0xFFFF;
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            if (i > 0) sb.append('\n');
+            sb.append(readString(in));
+        }
+        return sb.toString();
+    }
+}
@@ -1,19 +1,47 @@
 package com.example.myapplication;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.EditText;
 import android.widget.ImageView;
 import android.widget.TextView;
+import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
-import androidx.cardview.widget.CardView;
+import androidx.appcompat.widget.AppCompatTextView;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 public class DiseaseInfoActivity extends AppCompatActivity {
 
+    // Model class (SkinClassifier.CLASS_NAMES index) to show on its own instead of the whole catalog
+    static final String EXTRA_CLASS_INDEX = "classIndex";
+
+    // Card image is match_parent x 180dp; this keeps decodes well under screen width on most devices
+    static final int DISEASE_IMAGE_SIZE = 512;
+
+    // Rows past the visible ones whose images are decoded before they scroll in
+    private static final int PREFETCH_AHEAD = 3;
+
+    // Measures row text off the main thread (PrecomputedText on API 28+)
+    private static final Executor TEXT_EXECUTOR =
+            Executors.newSingleThreadExecutor(r -> new Thread(r, "Disease text"));
+
+    private DiseaseCatalog catalog;
+    private DiseaseAdapter diseaseAdapter;
+    private LinearLayoutManager layoutManager;
+    private EditText searchInput;
+    private int classIndex;
+
+    // Null until the catalog's search index is built
+    private TextIndex searchIndex;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -22,104 +50,119 @@ public class DiseaseInfoActivity extends AppCompatActivity {
         // Initialize toolbar
         setSupportActionBar(findViewById(R.id.toolbar));
 
+        catalog = DiseaseCatalog.get(this);
+
         // Setup RecyclerView
         RecyclerView diseaseRecyclerView = findViewById(R.id.diseaseRecyclerView);
-        diseaseRecyclerView.setLayoutManager(new LinearLayoutManager(this));
-
-        // Create and set adapter with disease data
-        DiseaseAdapter diseaseAdapter = new DiseaseAdapter(createDiseaseList());
+        layoutManager = new LinearLayoutManager(this);
+        diseaseRecyclerView.setLayoutManager(layoutManager);
+        diseaseAdapter = new DiseaseAdapter();
         diseaseRecyclerView.setAdapter(diseaseAdapter);
+
+        // Also called with dy == 0 after each layout, which covers the first screen
+        diseaseRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+                prefetchImages(dy >= 0);
+            }
+        });
+
+        searchInput = findViewById(R.id.diseaseSearch);
+        searchInput.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {}
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                applyFilter(s.toString());
+            }
+        });
+
+        classIndex = getIntent().getIntExtra(EXTRA_CLASS_INDEX, -1);
+        if (classIndex >= 0) {
+            searchInput.setVisibility(View.GONE);
+        }
+
+        // A scan preloads the catalog, so details opened from a result bind in this first frame
+        if (catalog.isLoaded()) {
+            showCatalog();
+            return;
+        }
+        // Otherwise only the header is read; entries decode as rows bind
+        catalog.load(new DiseaseCatalog.LoadCallback() {
+            @Override
+            public void onLoaded() {
+                if (!isDestroyed()) showCatalog();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                e.printStackTrace();
+                if (isDestroyed()) return;
+                Toast.makeText(DiseaseInfoActivity.this, "Disease information is unavailable", Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    private void showCatalog() {
+        // Straight to one condition: a direct index lookup, no list to build or search
+        int entry = classIndex >= 0 ? catalog.indexOfClass(classIndex) : -1;
+        if (entry >= 0) {
+            setTitle(catalog.get(entry).name);
+            diseaseAdapter.show(new int[]{entry});
+            return;
+        }
+
+        searchInput.setVisibility(View.VISIBLE);
+        diseaseAdapter.show(null);
+        catalog.loadSearchIndex(index -> {
+            if (isDestroyed()) return;
+            searchIndex = index;
+            searchInput.setEnabled(true);
+            applyFilter(searchInput.getText().toString());
+        });
     }
 
-    private List<Disease> createDiseaseList() {
-        List<Disease> diseases = new ArrayList<>();
-
-        // Acne
-        List<String> acneSymptoms = new ArrayList<>();
-        acneSymptoms.add("• Whiteheads (closed plugged pores)");
-        acneSymptoms.add("• Blackheads (open plugged pores)");
-        acneSymptoms.add("• Small red, tender bumps (papules)");
-        acneSymptoms.add("• Pimples (pustules)");
-        acneSymptoms.add("• Large, solid, painful lumps beneath the skin (nodules)");
-        acneSymptoms.add("• Painful, pus-filled lumps beneath the skin (cystic lesions)");
-
-        List<String> acneTreatments = new ArrayList<>();
-        acneTreatments.add("✓ Topical treatments like benzoyl peroxide or salicylic acid");
-        acneTreatments.add("✓ Antibiotics to reduce bacteria and inflammation");
-        acneTreatments.add("✓ Oral contraceptives for hormonal acne in women");
-        acneTreatments.add("✓ Isotretinoin for severe acne");
-        acneTreatments.add("✓ Light therapy to reduce bacteria");
-        acneTreatments.add("✓ Chemical peels to improve mild acne");
-
-        diseases.add(new Disease(
-                "Acne",
-                "acne.jpg",
-                "Acne is a skin condition that occurs when hair follicles become plugged with oil and dead skin cells. It causes whiteheads, blackheads or pimples.",
-                acneSymptoms,
-                acneTreatments
-        ));
-
-        // Eczema
-        List<String> eczemaSymptoms = new ArrayList<>();
-        eczemaSymptoms.add("• Dry, sensitive skin");
-        eczemaSymptoms.add("• Red, inflamed skin");
-        eczemaSymptoms.add("• Severe itching");
-        eczemaSymptoms.add("• Dark colored patches");
-        eczemaSymptoms.add("• Rough, leathery or scaly patches");
-        eczemaSymptoms.add("• Oozing or crusting");
-        eczemaSymptoms.add("• Areas of swelling");
-
-        List<String> eczemaTreatments = new ArrayList<>();
-        eczemaTreatments.add("✓ Moisturize regularly with fragrance-free creams");
-        eczemaTreatments.add("✓ Use mild, non-soap cleansers");
-        eczemaTreatments.add("✓ Apply corticosteroid creams to reduce inflammation");
-        eczemaTreatments.add("✓ Take antihistamines for severe itching");
-        eczemaTreatments.add("✓ Use wet dressings for severe flares");
-        eczemaTreatments.add("✓ Phototherapy for widespread eczema");
-
-        diseases.add(new Disease(
-                "Eczema",
-                "eczema.jpg",
-                "Eczema is a condition that makes your skin inflamed or irritated. The most common type is atopic dermatitis which often begins in childhood.",
-                eczemaSymptoms,
-                eczemaTreatments
-        ));
-
-        // Add more diseases as needed...
-
-        return diseases;
+    private void applyFilter(String query) {
+        if (searchIndex == null) return;
+        diseaseAdapter.show(query.trim().isEmpty() ? null : searchIndex.search(query));
     }
 
-    // Disease model class
-    private static class Disease {
-        private final String name;
-        private final String image;
-        private final String description;
-        private final List<String> symptoms;
-        private final List<String> treatments;
-
-        public Disease(String name, String image, String description,
-                       List<String> symptoms, List<String> treatments) {
-            this.name = name;
-            this.image = image;
-            this.description = description;
-            this.symptoms = symptoms;
-            this.treatments = treatments;
+    private void prefetchImages(boolean forward) {
+        int count = diseaseAdapter.getItemCount();
+        int edge = forward ? layoutManager.findLastVisibleItemPosition() : layoutManager.findFirstVisibleItemPosition();
+        if (count == 0 || edge == RecyclerView.NO_POSITION) return;
+
+        int from = forward ? edge + 1 : Math.max(0, edge - PREFETCH_AHEAD);
+        int to = forward ? Math.min(count, edge + 1 + PREFETCH_AHEAD) : edge;
+        ImageLoader loader = ImageLoader.get(this);
+        for (int position = from; position < to; position++) {
+            loader.prefetchAsset(diseaseAdapter.diseaseAt(position).image, DISEASE_IMAGE_SIZE);
         }
+    }
 
-        public String getName() { return name; }
-        public String getImage() { return image; }
-        public String getDescription() { return description; }
-        public List<String> getSymptoms() { return symptoms; }
-        public List<String> getTreatments() { return treatments; }
+    // The view blocks in onMeasure only if the text is not ready yet, which RecyclerView's own
+    // item prefetch (binding a row before it scrolls in) usually avoids
+    private static void setTextAsync(AppCompatTextView view, String text) {
+        view.setTextFuture(PrecomputedTextCompat.getTextFuture(
+                text, TextViewCompat.getTextMetricsParams(view), TEXT_EXECUTOR));
     }
 
     // Adapter class
     private class DiseaseAdapter extends RecyclerView.Adapter<DiseaseAdapter.DiseaseViewHolder> {
-        private final List<Disease> diseases;
+        // Catalog indices matching the search, or null to show the whole catalog
+        private int[] visible;
+
+        void show(int[] catalogIndices) {
+            visible = catalogIndices;
+            notifyDataSetChanged();
+        }
 
-        public DiseaseAdapter(List<Disease> diseases) {
-            this.diseases = diseases;
+        DiseaseCatalog.Disease diseaseAt(int position) {
+            return catalog.get(visible != null ? visible[position] : position);
         }
 
         @Override
@@ -131,41 +174,30 @@ public class DiseaseInfoActivity extends AppCompatActivity {
 
         @Override
         public void onBindViewHolder(DiseaseViewHolder holder, int position) {
-            Disease disease = diseases.get(position);
+            DiseaseCatalog.Disease disease = diseaseAt(position);
 
-            holder.diseaseName.setText(disease.getName());
-            holder.diseaseDescription.setText(disease.getDescription());
+            holder.diseaseName.setText(disease.name);
+            setTextAsync(holder.diseaseDescription, disease.description);
+            setTextAsync(holder.symptomsList, disease.symptoms);
+            setTextAsync(holder.treatmentsList, disease.treatments);
 
-            // For images, you would typically use Glide or Picasso
-            // Glide.with(holder.itemView.getContext()).load(disease.getImage()).into(holder.diseaseImage);
-
-            // Build symptoms text
-            StringBuilder symptomsText = new StringBuilder();
-            for (String symptom : disease.getSymptoms()) {
-                symptomsText.append(symptom).append("\n");
-            }
-            holder.symptomsList.setText(symptomsText.toString());
-
-            // Build treatments text
-            StringBuilder treatmentsText = new StringBuilder();
-            for (String treatment : disease.getTreatments()) {
-                treatmentsText.append(treatment).append("\n");
-            }
-            holder.treatmentsList.setText(treatmentsText.toString());
+            ImageLoader.get(holder.itemView.getContext())
+                    .loadAsset(disease.image, holder.diseaseImage, DISEASE_IMAGE_SIZE);
         }
 
         @Override
         public int getItemCount() {
-            return diseases.size();
+            if (!catalog.isLoaded()) return 0;
+            return visible != null ? visible.length : catalog.size();
         }
 
         // ViewHolder class
         class DiseaseViewHolder extends RecyclerView.ViewHolder {
             ImageView diseaseImage;
             TextView diseaseName;
-            TextView diseaseDescription;
-            TextView symptomsList;
-            TextView treatmentsList;
+            AppCompatTextView diseaseDescription;
+            AppCompatTextView symptomsList;
+            AppCompatTextView treatmentsList;
 
             public DiseaseViewHolder(View itemView) {
                 super(itemView);
@@ -177,4 +209,4 @@ public class DiseaseInfoActivity extends AppCompatActivity {
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,62 @@
+package com.example.myapplication;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// In-process stand-in for the /predict endpoint: reads the whole upload, then answers after a
+// set delay, or fails like an unreachable server while down. Lets the hybrid routing be driven
+// without a running app.py (see benchmark/HybridPolicyCheck). Pure Java; thread-safe.
+final class FakeTransport implements RemoteTransport {
+
+    private final String responseBody;
+    private volatile long latencyMillis;
+    private volatile boolean down;
+    private final AtomicInteger requests = new AtomicInteger();
+
+    FakeTransport(String responseBody, long latencyMillis) {
+        this.responseBody = responseBody;
+        this.latencyMillis = latencyMillis;
+    }
+
+    void setLatency(long millis) {
+        latencyMillis = millis;
+    }
+
+    void setDown(boolean down) {
+        this.down = down;
+    }
+
+    int requestCount() {
+        return requests.get();
+    }
+
+    @Override
+    public Response post(String url, String contentType, long contentLength, Body body, int timeoutMillis)
+            throws IOException {
+        requests.incrementAndGet();
+        body.writeTo(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        });
+        if (down) {
+            throw new IOException("Connection refused: " + url);
+        }
+        try {
+            Thread.sleep(Math.min(latencyMillis, timeoutMillis));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+        if (latencyMillis > timeoutMillis) {
+            throw new IOException("Timed out: " + url);
+        }
+        return new Response(200, responseBody);
+    }
+}
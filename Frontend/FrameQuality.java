@@ -0,0 +1,74 @@
+package com.example.myapplication;
+
+import java.nio.ByteBuffer;
+
+// Sharpness and exposure of a camera frame, measured straight from the Y plane so no decode is needed.
+// Mirrors assess_image_quality in training.py: Laplacian variance for blur, std for contrast and
+// mean for brightness. Pure Java; an instance is filled in place and can be reused.
+final class FrameQuality {
+
+    // Same acceptance limits as training.py
+    static final double MIN_SHARPNESS = 100;
+    static final double MIN_CONTRAST = 30;
+    static final double MIN_BRIGHTNESS = 50;
+    static final double MAX_BRIGHTNESS = 200;
+
+    // Larger frames are measured on a strided grid of at most this many samples per short side
+    static final int SAMPLE_SIDE = 256;
+
+    double sharpness;
+    double contrast;
+    double brightness;
+
+    // luma holds 8-bit samples addressed as y * rowStride + x; its position is left untouched
+    void measure(ByteBuffer luma, int width, int height, int rowStride) {
+        int step = Math.max(1, (Math.min(width, height) + SAMPLE_SIDE - 1) / SAMPLE_SIDE);
+        int rowStep = step * rowStride;
+
+        long count = 0;
+        long sum = 0;
+        long sumSquares = 0;
+        long laplacianSum = 0;
+        long laplacianSquares = 0;
+
+        for (int y = step; y < height - step; y += step) {
+            int row = y * rowStride;
+            for (int x = step; x < width - step; x += step) {
+                int index = row + x;
+                int center = luma.get(index) & 0xFF;
+                int laplacian = 4 * center
+                        - (luma.get(index - step) & 0xFF) - (luma.get(index + step) & 0xFF)
+                        - (luma.get(index - rowStep) & 0xFF) - (luma.get(index + rowStep) & 0xFF);
+
+                count++;
+                sum += center;
+                sumSquares += center * center;
+                laplacianSum += laplacian;
+                laplacianSquares += laplacian * laplacian;
+            }
+        }
+
+        if (count == 0) {
+            sharpness = contrast = brightness = 0;
+            return;
+        }
+        brightness = (double) sum / count;
+        contrast = Math.sqrt(Math.max(0, (double) sumSquares / count - brightness * brightness));
+        double laplacianMean = (double) laplacianSum / count;
+        sharpness = (double) laplacianSquares / count - laplacianMean * laplacianMean;
+    }
+
+    boolean isWellExposed() {
+        return contrast > MIN_CONTRAST && brightness >= MIN_BRIGHTNESS && brightness <= MAX_BRIGHTNESS;
+    }
+
+    boolean isAcceptable() {
+        return sharpness > MIN_SHARPNESS && isWellExposed();
+    }
+
+    // A well-exposed frame always beats a badly exposed one; otherwise the sharper frame wins
+    boolean isBetterThan(FrameQuality other) {
+        if (isWellExposed() != other.isWellExposed()) return isWellExposed();
+        return sharpness > other.sharpness;
+    }
+}
@@ -2,14 +2,20 @@ package com.example.myapplication;
 
 
 import android.content.Context;
-import android.net.Uri;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextUtils;
+import android.text.TextWatcher;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.AbsListView;
+import android.widget.AdapterView;
 import android.widget.ArrayAdapter;
+import android.widget.EditText;
 import android.widget.ImageView;
 import android.widget.ListView;
+import android.widget.Spinner;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
@@ -20,18 +26,46 @@ import androidx.appcompat.widget.Toolbar;
 
 import com.google.android.material.snackbar.Snackbar;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 
 public class HistoryActivity extends AppCompatActivity {
 
+    private static final int SUMMARY_DAYS = 30;
+    private static final int SUMMARY_CLASSES = 3;
+
+    // Spinner choices; index 0 of each means no constraint
+    private static final String[] CONFIDENCE_LABELS = {"Any confidence", "Below 50%", "50% and up", "80% and up", "90% and up"};
+    private static final double[] CONFIDENCE_MIN = {0, 0, 0.5, 0.8, 0.9};
+    // Exclusive upper bounds
+    private static final double[] CONFIDENCE_MAX = {Double.POSITIVE_INFINITY, 0.5,
+            Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY};
+    private static final String[] DATE_LABELS = {"All time", "Today", "Last 7 days", "Last 30 days"};
+    private static final int[] DATE_DAYS = {0, 1, 7, 30};
+
     private ListView historyList;
     private View emptyView;
-    private List<HistoryItem> historyItems = new ArrayList<>();
+    private HistoryAdapter adapter;
+    private TextView queueStatus;
+    private TextView analyticsSummary;
+    private final ScanQueue.Listener queueListener = this::showQueueStatus;
+
+    private EditText searchInput;
+    private Spinner diseaseFilter;
+    private Spinner confidenceFilter;
+    private Spinner dateFilter;
+
+    // Paging state: the next page starts after the last loaded row, or at the next index of
+    // searchResult while a filter is active
+    private boolean loadingPage;
+    private boolean reachedEnd;
+    private HistoryStore.SearchResult searchResult;
+    // Filter the list currently shows; null for the plain history loaded at start
+    private HistoryStore.Filter appliedFilter;
+    // Bumped whenever the list is reset, so pages for an older list are dropped
+    private int listGeneration;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -46,24 +80,233 @@ public class HistoryActivity extends AppCompatActivity {
 
         historyList = findViewById(R.id.historyList);
         emptyView = findViewById(R.id.emptyView);
+        queueStatus = findViewById(R.id.queueStatus);
+        analyticsSummary = findViewById(R.id.analyticsSummary);
         ImageView deleteButton = findViewById(R.id.deleteButton);
 
-        // Load history items
-        loadHistoryItems();
-
         // Set adapter
-        HistoryAdapter adapter = new HistoryAdapter(this, historyItems);
+        adapter = new HistoryAdapter(this, new ArrayList<>());
         historyList.setAdapter(adapter);
         historyList.setEmptyView(emptyView);
 
+        // Stream further pages in as the user nears the end of the list
+        historyList.setOnScrollListener(new AbsListView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(AbsListView view, int scrollState) {}
+
+            @Override
+            public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount, int totalItemCount) {
+                if (firstVisibleItem + visibleItemCount >= totalItemCount - HistoryRepository.PAGE_SIZE / 2) {
+                    loadNextPage();
+                }
+            }
+        });
+
+        historyList.setOnItemLongClickListener((parent, view, position, id) -> {
+            editNotes(adapter.getItem(position));
+            return true;
+        });
+
+        setUpFilters();
+
+        // Load history items
+        loadNextPage();
+        loadAnalyticsSummary();
+
         // Delete button click listener
         deleteButton.setOnClickListener(v -> showDeleteConfirmationDialog());
+
+        ScanQueue.get(this).addListener(queueListener);
+    }
+
+    // Scans that are journaled but not yet in history (offline, or interrupted)
+    private void showQueueStatus(int pending, float drainedPerMinute) {
+        if (pending == 0) {
+            queueStatus.setVisibility(View.GONE);
+            return;
+        }
+        String text = pending == 1 ? "1 scan waiting to sync" : pending + " scans waiting to sync";
+        if (drainedPerMinute > 0) {
+            text += String.format(Locale.getDefault(), " · %.1f/min", drainedPerMinute);
+        }
+        queueStatus.setText(text);
+        queueStatus.setVisibility(View.VISIBLE);
     }
 
-    private void loadHistoryItems() {
-        // Sample data - in real app, load from database or SharedPreferences
-        historyItems.add(new HistoryItem("Acne", 0.92, "2023-05-15T10:30:00", "content://image1"));
-        historyItems.add(new HistoryItem("Eczema", 0.88, "2023-05-14T15:45:00", "content://image2"));
+    private void loadAnalyticsSummary() {
+        long today = HistoryDates.epochDay(System.currentTimeMillis());
+        HistoryRepository.get(this).queryAnalytics(
+                analytics -> summarize(analytics, today - SUMMARY_DAYS + 1, today + 1),
+                summary -> {
+                    analyticsSummary.setText(summary);
+                    analyticsSummary.setVisibility(summary != null ? View.VISIBLE : View.GONE);
+                });
+    }
+
+    // "Last 30 days: 42 scans · Acne 20 (avg 84%) · ..." for the most scanned classes; null if none
+    private static String summarize(HistoryAnalytics analytics, long fromDay, long toDay) {
+        HistoryAnalytics.Rollup all = analytics.window(fromDay, toDay);
+        if (all.count == 0) return null;
+
+        List<HistoryAnalytics.Rollup> rollups = new ArrayList<>();
+        List<Integer> order = new ArrayList<>();
+        for (int c = 0; c < analytics.classCount(); c++) {
+            rollups.add(analytics.window(c, fromDay, toDay));
+            order.add(c);
+        }
+        Collections.sort(order, (a, b) -> Integer.compare(rollups.get(b).count, rollups.get(a).count));
+
+        StringBuilder sb = new StringBuilder(String.format(Locale.getDefault(),
+                "Last %d days: %d %s", SUMMARY_DAYS, all.count, all.count == 1 ? "scan" : "scans"));
+        for (int i = 0; i < Math.min(SUMMARY_CLASSES, order.size()); i++) {
+            int c = order.get(i);
+            HistoryAnalytics.Rollup rollup = rollups.get(c);
+            if (rollup.count == 0) break;
+            sb.append(String.format(Locale.getDefault(), " · %s %d (avg %d%%)",
+                    analytics.className(c), rollup.count, Math.round(rollup.meanConfidence * 100)));
+        }
+        return sb.toString();
+    }
+
+    private void setUpFilters() {
+        searchInput = findViewById(R.id.historySearch);
+        diseaseFilter = findViewById(R.id.diseaseFilter);
+        confidenceFilter = findViewById(R.id.confidenceFilter);
+        dateFilter = findViewById(R.id.dateFilter);
+
+        String[] diseases = new String[SkinClassifier.CLASS_NAMES.length + 1];
+        diseases[0] = "All conditions";
+        System.arraycopy(SkinClassifier.CLASS_NAMES, 0, diseases, 1, SkinClassifier.CLASS_NAMES.length);
+        setChoices(diseaseFilter, diseases);
+        setChoices(confidenceFilter, CONFIDENCE_LABELS);
+        setChoices(dateFilter, DATE_LABELS);
+
+        searchInput.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {}
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                applyFilter();
+            }
+        });
+    }
+
+    private void setChoices(Spinner spinner, String[] labels) {
+        ArrayAdapter<String> choices = new ArrayAdapter<>(this, android.R.layout.simple_spinner_item, labels);
+        choices.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        spinner.setAdapter(choices);
+        spinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            // Also fires once for the initial selection; applyFilter ignores an unchanged filter
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                applyFilter();
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {}
+        });
+    }
+
+    // Null when nothing is constrained, which pages the plain history instead of searching
+    private HistoryStore.Filter currentFilter() {
+        String text = searchInput.getText().toString().trim();
+        int disease = diseaseFilter.getSelectedItemPosition();
+        int confidence = Math.max(0, confidenceFilter.getSelectedItemPosition());
+        int date = Math.max(0, dateFilter.getSelectedItemPosition());
+        if (text.isEmpty() && disease <= 0 && confidence == 0 && date == 0) return null;
+
+        long fromTime = Long.MIN_VALUE;
+        if (DATE_DAYS[date] > 0) {
+            // From local midnight, so "last 7 days" means today and the six days before it
+            long today = HistoryDates.epochDay(System.currentTimeMillis());
+            fromTime = HistoryDates.startOfDay(today - DATE_DAYS[date] + 1);
+        }
+        return new HistoryStore.Filter(text.isEmpty() ? null : text,
+                disease > 0 ? SkinClassifier.CLASS_NAMES[disease - 1] : null,
+                CONFIDENCE_MIN[confidence], CONFIDENCE_MAX[confidence], fromTime, Long.MAX_VALUE);
+    }
+
+    private void applyFilter() {
+        HistoryStore.Filter filter = currentFilter();
+        if (sameFilter(filter, appliedFilter)) return;
+        appliedFilter = filter;
+        resetList();
+
+        if (filter == null) {
+            loadNextPage();
+            return;
+        }
+        // Search and first page come back together; later pages load as the list scrolls
+        int generation = listGeneration;
+        loadingPage = true;
+        HistoryRepository.get(this).search(filter, (result, firstPage) -> {
+            if (generation != listGeneration) return;
+            loadingPage = false;
+            searchResult = result;
+            reachedEnd = firstPage.size() >= result.rows.length;
+            adapter.addAll(firstPage);
+        });
+    }
+
+    private static boolean sameFilter(HistoryStore.Filter a, HistoryStore.Filter b) {
+        if (a == null || b == null) return a == b;
+        return TextUtils.equals(a.text, b.text) && TextUtils.equals(a.disease, b.disease)
+                && a.minConfidence == b.minConfidence && a.maxConfidence == b.maxConfidence
+                && a.fromTime == b.fromTime && a.toTime == b.toTime;
+    }
+
+    private void resetList() {
+        listGeneration++;
+        loadingPage = false;
+        reachedEnd = false;
+        searchResult = null;
+        adapter.clear();
+    }
+
+    private void loadNextPage() {
+        if (loadingPage || reachedEnd) return;
+        loadingPage = true;
+
+        int generation = listGeneration;
+        HistoryRepository.PageCallback onPage = page -> {
+            if (generation != listGeneration) return;
+            loadingPage = false;
+            if (page.size() < HistoryRepository.PAGE_SIZE) {
+                reachedEnd = true;
+            }
+            adapter.addAll(page);
+        };
+
+        int count = adapter.getCount();
+        if (searchResult != null) {
+            HistoryRepository.get(this).loadSearchPage(searchResult, count, onPage);
+            return;
+        }
+        HistoryStore.Cursor cursor = count == 0 ? null : HistoryStore.Cursor.after(adapter.getItem(count - 1));
+        HistoryRepository.get(this).loadPage(cursor, onPage);
+    }
+
+    private void editNotes(HistoryItem item) {
+        if (item == null) return;
+        EditText input = new EditText(this);
+        input.setText(item.notes);
+        input.setHint("e.g. left forearm, itchy since Monday");
+        new AlertDialog.Builder(this)
+                .setTitle("Notes")
+                .setView(input)
+                .setPositiveButton("Save", (dialog, which) -> {
+                    String notes = input.getText().toString().trim();
+                    HistoryRepository.get(this).updateNotes(item.id, notes, () -> {
+                        item.notes = notes.isEmpty() ? null : notes;
+                        adapter.notifyDataSetChanged();
+                    });
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
     }
 
     private void showDeleteConfirmationDialog() {
@@ -76,9 +319,20 @@ public class HistoryActivity extends AppCompatActivity {
     }
 
     private void clearHistory() {
-        historyItems.clear();
-        ((HistoryAdapter) historyList.getAdapter()).notifyDataSetChanged();
-        Snackbar.make(findViewById(android.R.id.content), "History cleared", Snackbar.LENGTH_SHORT).show();
+        HistoryRepository.get(this).clear(() -> {
+            // Captures of the cleared scans are now orphans
+            CaptureStorage.get(this).compactSoon();
+            resetList();
+            reachedEnd = true;
+            analyticsSummary.setVisibility(View.GONE);
+            Snackbar.make(findViewById(android.R.id.content), "History cleared", Snackbar.LENGTH_SHORT).show();
+        });
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        ScanQueue.get(this).removeListener(queueListener);
     }
 
     @Override
@@ -87,20 +341,6 @@ public class HistoryActivity extends AppCompatActivity {
         return true;
     }
 
-    static class HistoryItem {
-        String disease;
-        double confidence;
-        String date;
-        String imageUri;
-
-        HistoryItem(String disease, double confidence, String date, String imageUri) {
-            this.disease = disease;
-            this.confidence = confidence;
-            this.date = date;
-            this.imageUri = imageUri;
-        }
-    }
-
     static class HistoryAdapter extends ArrayAdapter<HistoryItem> {
         HistoryAdapter(Context context, List<HistoryItem> items) {
             super(context, 0, items);
@@ -121,31 +361,19 @@ public class HistoryActivity extends AppCompatActivity {
             TextView diseaseText = convertView.findViewById(R.id.diseaseText);
             TextView confidenceText = convertView.findViewById(R.id.confidenceText);
             TextView dateText = convertView.findViewById(R.id.dateText);
+            TextView notesText = convertView.findViewById(R.id.notesText);
 
-            // Load image - in real app use Glide/Picasso
-            try {
-                imageView.setImageURI(Uri.parse(item.imageUri));
-            } catch (Exception e) {
-                imageView.setImageResource(R.drawable.ic_placeholder);
-            }
+            // Downsampled thumbnail, decoded off the UI thread and cancelled if this row is recycled
+            ImageLoader.get(getContext()).loadThumbnail(item, imageView);
 
             diseaseText.setText(item.disease);
             confidenceText.setText(String.format(Locale.getDefault(),
                     "Confidence: %.1f%%", item.confidence * 100));
-            dateText.setText(formatDate(item.date));
+            dateText.setText(HistoryDates.format(item.timestamp));
+            notesText.setText(item.notes);
+            notesText.setVisibility(item.notes != null ? View.VISIBLE : View.GONE);
 
             return convertView;
         }
-
-        private String formatDate(String isoDate) {
-            try {
-                SimpleDateFormat inputFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss", Locale.getDefault());
-                SimpleDateFormat outputFormat = new SimpleDateFormat("MMM d, yyyy - hh:mm a", Locale.getDefault());
-                Date date = inputFormat.parse(isoDate);
-                return outputFormat.format(date);
-            } catch (ParseException e) {
-                return "Unknown date";
-            }
-        }
     }
 }
\ No newline at end of file
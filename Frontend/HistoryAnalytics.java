@@ -0,0 +1,247 @@
+package com.example.myapplication;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Aggregates over the scan history, updated row by row as HistoryStore indexes them so nothing
+// is ever recomputed by scanning the log. Everything lives in primitive arrays indexed by class:
+// all-time count, running mean and variance of confidence (Welford), a confidence histogram, and
+// per-day prefix sums so any day window is answered in constant time.
+// Classes are numbered in the order given to the constructor (the model's class order); diseases
+// outside that list get the next free index when first seen.
+// Pure Java, no Android dependencies; not thread-safe (HistoryStore guards it with its own lock).
+final class HistoryAnalytics {
+
+    // Aggregate for one class (or all classes) over a window
+    static final class Rollup {
+        final int count;
+        final double meanConfidence;
+        // Sample variance; 0 for fewer than two scans
+        final double confidenceVariance;
+
+        Rollup(int count, double meanConfidence, double confidenceVariance) {
+            this.count = count;
+            this.meanConfidence = meanConfidence;
+            this.confidenceVariance = confidenceVariance;
+        }
+    }
+
+    // Confidence histogram buckets of width 1 / HISTOGRAM_BUCKETS over [0, 1]
+    static final int HISTOGRAM_BUCKETS = 10;
+
+    private final Map<String, Integer> classIndices = new HashMap<>();
+    private String[] classNames;
+
+    // All time, indexed by class
+    private int[] counts;
+    private double[] means;
+    private double[] m2;
+    private int[][] histograms;
+
+    // Per-class prefix sums over days: index d holds the totals of days [firstDay, firstDay + d),
+    // so a window is two reads per column
+    private long firstDay = Long.MIN_VALUE;
+    private int dayCount;
+    private int[][] dayCounts;
+    private double[][] daySums;
+    private double[][] daySquares;
+
+    HistoryAnalytics(String[] classNames) {
+        this.classNames = new String[0];
+        counts = new int[0];
+        means = new double[0];
+        m2 = new double[0];
+        histograms = new int[0][];
+        dayCounts = new int[0][];
+        daySums = new double[0][];
+        daySquares = new double[0][];
+        for (String name : classNames) {
+            classIndex(name);
+        }
+    }
+
+    int classCount() {
+        return classNames.length;
+    }
+
+    String className(int classIndex) {
+        return classNames[classIndex];
+    }
+
+    // -1 if no scan of disease has been seen and it is not a model class
+    int indexOf(String disease) {
+        Integer index = classIndices.get(disease);
+        return index != null ? index : -1;
+    }
+
+    // classIndex comes from classIndex(String); epochDay is the scan's local day
+    void record(int classIndex, double confidence, long epochDay) {
+        int c = classIndex;
+        // Welford's update keeps the variance stable without storing the values
+        int n = ++counts[c];
+        double delta = confidence - means[c];
+        means[c] += delta / n;
+        m2[c] += delta * (confidence - means[c]);
+
+        int bucket = (int) (confidence * HISTOGRAM_BUCKETS);
+        histograms[c][Math.max(0, Math.min(HISTOGRAM_BUCKETS - 1, bucket))]++;
+
+        int day = dayIndex(epochDay);
+        // Scans arrive in date order, so this usually touches only the last prefix entry
+        for (int d = day + 1; d <= dayCount; d++) {
+            dayCounts[c][d]++;
+            daySums[c][d] += confidence;
+            daySquares[c][d] += confidence * confidence;
+        }
+    }
+
+    void clear() {
+        Arrays.fill(counts, 0);
+        Arrays.fill(means, 0);
+        Arrays.fill(m2, 0);
+        for (int[] histogram : histograms) {
+            Arrays.fill(histogram, 0);
+        }
+        firstDay = Long.MIN_VALUE;
+        dayCount = 0;
+        for (int c = 0; c < classNames.length; c++) {
+            dayCounts[c] = new int[1];
+            daySums[c] = new double[1];
+            daySquares[c] = new double[1];
+        }
+    }
+
+    // All-time aggregate for a class
+    Rollup total(int classIndex) {
+        int n = counts[classIndex];
+        return new Rollup(n, means[classIndex], n > 1 ? m2[classIndex] / (n - 1) : 0);
+    }
+
+    // Copy of the all-time confidence histogram for a class
+    int[] histogram(int classIndex) {
+        return histograms[classIndex].clone();
+    }
+
+    // Scans of a class on days [fromDay, toDay) (epoch days), in constant time
+    Rollup window(int classIndex, long fromDay, long toDay) {
+        int from = clampDay(fromDay);
+        int to = clampDay(toDay);
+        if (to <= from) return new Rollup(0, 0, 0);
+        int n = dayCounts[classIndex][to] - dayCounts[classIndex][from];
+        double sum = daySums[classIndex][to] - daySums[classIndex][from];
+        double squares = daySquares[classIndex][to] - daySquares[classIndex][from];
+        return rollup(n, sum, squares);
+    }
+
+    // Scans of every class on days [fromDay, toDay); cost grows with classes, not rows
+    Rollup window(long fromDay, long toDay) {
+        int from = clampDay(fromDay);
+        int to = clampDay(toDay);
+        if (to <= from) return new Rollup(0, 0, 0);
+        int n = 0;
+        double sum = 0;
+        double squares = 0;
+        for (int c = 0; c < classNames.length; c++) {
+            n += dayCounts[c][to] - dayCounts[c][from];
+            sum += daySums[c][to] - daySums[c][from];
+            squares += daySquares[c][to] - daySquares[c][from];
+        }
+        return rollup(n, sum, squares);
+    }
+
+    // Scans of a class on each day of [fromDay, toDay), oldest first
+    int[] dailyCounts(int classIndex, long fromDay, long toDay) {
+        int[] result = new int[(int) Math.max(0, toDay - fromDay)];
+        for (int i = 0; i < result.length; i++) {
+            int d = clampDay(fromDay + i);
+            int next = clampDay(fromDay + i + 1);
+            result[i] = dayCounts[classIndex][next] - dayCounts[classIndex][d];
+        }
+        return result;
+    }
+
+    private static Rollup rollup(int n, double sum, double squares) {
+        if (n == 0) return new Rollup(0, 0, 0);
+        double mean = sum / n;
+        double variance = n > 1 ? Math.max(0, (squares - sum * mean) / (n - 1)) : 0;
+        return new Rollup(n, mean, variance);
+    }
+
+    // Index of disease, assigning the next free one on first sight
+    int classIndex(String disease) {
+        Integer index = classIndices.get(disease);
+        if (index != null) return index;
+
+        int c = classNames.length;
+        int size = c + 1;
+        classNames = Arrays.copyOf(classNames, size);
+        classNames[c] = disease;
+        counts = Arrays.copyOf(counts, size);
+        means = Arrays.copyOf(means, size);
+        m2 = Arrays.copyOf(m2, size);
+        histograms = Arrays.copyOf(histograms, size);
+        histograms[c] = new int[HISTOGRAM_BUCKETS];
+        dayCounts = Arrays.copyOf(dayCounts, size);
+        daySums = Arrays.copyOf(daySums, size);
+        daySquares = Arrays.copyOf(daySquares, size);
+        // A new class has seen nothing, so its prefix sums are all zero
+        dayCounts[c] = new int[dayCount + 1];
+        daySums[c] = new double[dayCount + 1];
+        daySquares[c] = new double[dayCount + 1];
+        classIndices.put(disease, c);
+        return c;
+    }
+
+    // Index of epochDay in the day columns, growing them (in either direction) to cover it
+    private int dayIndex(long epochDay) {
+        if (dayCount == 0) {
+            firstDay = epochDay;
+            resizeDays(0, 1);
+        } else if (epochDay < firstDay) {
+            resizeDays((int) (firstDay - epochDay), dayCount + (int) (firstDay - epochDay));
+            firstDay = epochDay;
+        } else if (epochDay >= firstDay + dayCount) {
+            resizeDays(0, (int) (epochDay - firstDay) + 1);
+        }
+        return (int) (epochDay - firstDay);
+    }
+
+    // Shifts existing days right by shift and extends the columns to newDayCount days; prefix
+    // entries before the old first day are zero, and new trailing entries carry the last total
+    private void resizeDays(int shift, int newDayCount) {
+        for (int c = 0; c < classNames.length; c++) {
+            int capacity = dayCounts[c].length;
+            if (shift > 0 || newDayCount + 1 > capacity) {
+                int length = Math.max(newDayCount + 1, capacity * 2);
+                dayCounts[c] = shiftCopy(dayCounts[c], shift, length);
+                daySums[c] = shiftCopy(daySums[c], shift, length);
+                daySquares[c] = shiftCopy(daySquares[c], shift, length);
+            }
+            int last = dayCount + shift;
+            for (int d = last + 1; d <= newDayCount; d++) {
+                dayCounts[c][d] = dayCounts[c][last];
+                daySums[c][d] = daySums[c][last];
+                daySquares[c][d] = daySquares[c][last];
+            }
+        }
+        dayCount = newDayCount;
+    }
+
+    private int clampDay(long epochDay) {
+        if (dayCount == 0) return 0;
+        return (int) Math.max(0, Math.min(dayCount, epochDay - firstDay));
+    }
+
+    private static int[] shiftCopy(int[] values, int shift, int length) {
+        int[] copy = new int[length];
+        System.arraycopy(values, 0, copy, shift, Math.min(values.length, length - shift));
+        return copy;
+    }
+
+    private static double[] shiftCopy(double[] values, int shift, int length) {
+        double[] copy = new double[length];
+        System.arraycopy(values, 0, copy, shift, Math.min(values.length, length - shift));
+        return copy;
+    }
+}
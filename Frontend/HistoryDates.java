@@ -0,0 +1,111 @@
+package com.example.myapplication;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.zone.ZoneRules;
+import java.util.Locale;
+
+// Shared, thread-safe conversion of history timestamps (epoch millis) to local days and labels.
+// java.time formatters are immutable, and each day's label ("Mar 4, 2025") and each minute's
+// label ("09:41 AM") is formatted once and then reused, so binding a row allocates only the
+// joined string. The caches are rebuilt if the device's time zone or locale changes.
+// Pure Java, no Android dependencies.
+final class HistoryDates {
+
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    // Reading the default zone allocates, so it is re-read at most this often
+    private static final long RECHECK_MILLIS = 1000;
+
+    // Days kept labelled at once: well over a year of scans before two days share a slot
+    private static final int DAY_SLOTS = 512;
+
+    private static final class DayLabel {
+        final long day;
+        final String label;
+
+        DayLabel(long day, String label) {
+            this.day = day;
+            this.label = label;
+        }
+    }
+
+    private static final class Labels {
+        final ZoneId zone;
+        final ZoneRules rules;
+        final Locale locale;
+        final DateTimeFormatter dayFormat;
+        final DateTimeFormatter timeFormat;
+        // Direct-mapped by day; entries and strings are immutable, so a racing fill just formats
+        // the same label twice
+        final DayLabel[] days = new DayLabel[DAY_SLOTS];
+        final String[] times = new String[MINUTES_PER_DAY];
+        volatile long checkedAt;
+
+        Labels(ZoneId zone, Locale locale) {
+            this.zone = zone;
+            this.rules = zone.getRules();
+            this.locale = locale;
+            dayFormat = DateTimeFormatter.ofPattern("MMM d, yyyy", locale);
+            timeFormat = DateTimeFormatter.ofPattern("hh:mm a", locale);
+        }
+    }
+
+    private static volatile Labels labels;
+
+    private HistoryDates() {}
+
+    // "MMM d, yyyy - hh:mm a" in the device's zone and locale
+    static String format(long millis) {
+        Labels current = labels();
+        long local = millis + offsetMillis(current, millis);
+        long day = Math.floorDiv(local, MILLIS_PER_DAY);
+        int minute = (int) (Math.floorMod(local, MILLIS_PER_DAY) / 60_000);
+
+        int slot = (int) Math.floorMod(day, (long) DAY_SLOTS);
+        DayLabel dayLabel = current.days[slot];
+        if (dayLabel == null || dayLabel.day != day) {
+            dayLabel = new DayLabel(day, current.dayFormat.format(LocalDate.ofEpochDay(day)));
+            current.days[slot] = dayLabel;
+        }
+        String timeLabel = current.times[minute];
+        if (timeLabel == null) {
+            timeLabel = current.timeFormat.format(LocalTime.ofSecondOfDay(minute * 60L));
+            current.times[minute] = timeLabel;
+        }
+        return dayLabel.label + " - " + timeLabel;
+    }
+
+    // Local calendar day of millis, as days since 1970-01-01
+    static long epochDay(long millis) {
+        Labels current = labels();
+        return Math.floorDiv(millis + offsetMillis(current, millis), MILLIS_PER_DAY);
+    }
+
+    // Epoch millis at which local day epochDay begins
+    static long startOfDay(long epochDay) {
+        return LocalDate.ofEpochDay(epochDay).atStartOfDay(labels().zone).toInstant().toEpochMilli();
+    }
+
+    private static long offsetMillis(Labels current, long millis) {
+        return current.rules.getOffset(Instant.ofEpochMilli(millis)).getTotalSeconds() * 1000L;
+    }
+
+    private static Labels labels() {
+        Labels current = labels;
+        long now = System.currentTimeMillis();
+        if (current != null && now - current.checkedAt < RECHECK_MILLIS) return current;
+
+        ZoneId zone = ZoneId.systemDefault();
+        Locale locale = Locale.getDefault();
+        if (current == null || !current.zone.equals(zone) || !current.locale.equals(locale)) {
+            current = new Labels(zone, locale);
+            labels = current;
+        }
+        current.checkedAt = now;
+        return current;
+    }
+}
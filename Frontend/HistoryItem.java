@@ -0,0 +1,21 @@
+package com.example.myapplication;
+
+class HistoryItem {
+    long id;
+    String disease;
+    double confidence;
+    // Epoch millis; HistoryDates turns it into local days and labels
+    long timestamp;
+    String imageUri;
+    // Idempotency key of the scan that produced this entry; null for entries without one
+    String scanKey;
+    // Free text the user added afterwards; null if none
+    String notes;
+
+    HistoryItem(String disease, double confidence, long timestamp, String imageUri) {
+        this.disease = disease;
+        this.confidence = confidence;
+        this.timestamp = timestamp;
+        this.imageUri = imageUri;
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.myapplication;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// App-wide access to the HistoryStore. All disk I/O runs on one background thread;
+// callbacks are delivered on the main thread.
+public final class HistoryRepository {
+
+    public interface PageCallback {
+        void onPage(List<HistoryItem> items);
+    }
+
+    public interface ResultCallback<T> {
+        void onResult(T result);
+    }
+
+    public interface SearchCallback {
+        // result holds every matching row, newest first; firstPage holds its first PAGE_SIZE items
+        void onResults(HistoryStore.SearchResult result, List<HistoryItem> firstPage);
+    }
+
+    static final int PAGE_SIZE = 30;
+
+    private static HistoryRepository instance;
+
+    private final Context appContext;
+    private final File storeFile;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService io = Executors.newSingleThreadExecutor(r -> new Thread(r, "History IO"));
+
+    // Opened lazily on the io thread
+    private HistoryStore store;
+
+    // Bumped by every search; a search that is no longer the latest is skipped
+    private final AtomicInteger searchGeneration = new AtomicInteger();
+
+    private HistoryRepository(Context context) {
+        appContext = context.getApplicationContext();
+        storeFile = new File(appContext.getFilesDir(), "history.log");
+    }
+
+    public static synchronized HistoryRepository get(Context context) {
+        if (instance == null) {
+            instance = new HistoryRepository(context);
+        }
+        return instance;
+    }
+
+    // History keeps only the top class of a prediction
+    static HistoryItem newItem(Prediction prediction, String imageUri) {
+        return new HistoryItem(prediction.labelAt(0), prediction.confidenceAt(0), System.currentTimeMillis(), imageUri);
+    }
+
+    public void insert(HistoryItem item) {
+        insertAll(Collections.singletonList(item), null);
+    }
+
+    // onSaved runs on the io thread once every item is stored (not called on failure)
+    public void insertAll(List<HistoryItem> items, Runnable onSaved) {
+        io.execute(() -> {
+            try {
+                HistoryStore store = getStore();
+                for (HistoryItem item : items) {
+                    // A replayed scan is already stored (and has its thumbnail)
+                    if (item.scanKey != null && store.hasScanKey(item.scanKey)) continue;
+                    long id = store.insert(item);
+                    // Decoded on ImageLoader's pool; this thread stays free for pages and searches
+                    ImageLoader.get(appContext).createThumbnail(id, item.imageUri);
+                }
+                if (onSaved != null) {
+                    onSaved.run();
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    // Loads the page after cursor (null for the newest page)
+    public void loadPage(HistoryStore.Cursor cursor, PageCallback callback) {
+        io.execute(() -> {
+            try {
+                List<HistoryItem> page = getStore().queryPage(null, cursor, PAGE_SIZE);
+                mainHandler.post(() -> callback.onPage(page));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    // Searches superseded by a newer one (the user kept typing) are dropped before they run
+    // and never delivered
+    public void search(HistoryStore.Filter filter, SearchCallback callback) {
+        int generation = searchGeneration.incrementAndGet();
+        io.execute(() -> {
+            if (generation != searchGeneration.get()) return;
+            try {
+                HistoryStore store = getStore();
+                HistoryStore.SearchResult result = store.search(filter);
+                List<HistoryItem> firstPage = store.readRows(result, 0, PAGE_SIZE);
+                mainHandler.post(() -> {
+                    if (generation == searchGeneration.get()) callback.onResults(result, firstPage);
+                });
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    // Next page of a search result, starting at index start of its rows
+    public void loadSearchPage(HistoryStore.SearchResult result, int start, PageCallback callback) {
+        io.execute(() -> {
+            try {
+                List<HistoryItem> page = getStore().readRows(result, start, PAGE_SIZE);
+                mainHandler.post(() -> callback.onPage(page));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    public void updateNotes(long id, String notes, Runnable onSaved) {
+        io.execute(() -> {
+            try {
+                getStore().updateNotes(id, notes);
+                mainHandler.post(onSaved);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    // Runs query against the incrementally maintained aggregates; its cost does not grow with history
+    <T> void queryAnalytics(HistoryStore.AnalyticsQuery<T> query, ResultCallback<T> callback) {
+        io.execute(() -> {
+            try {
+                T result = getStore().queryAnalytics(query);
+                mainHandler.post(() -> callback.onResult(result));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    // Runs on the io thread, so it is ordered after every insert submitted before it
+    Future<Set<String>> imageUris() {
+        return io.submit(() -> getStore().imageUris());
+    }
+
+    public void clear(Runnable onCleared) {
+        io.execute(() -> {
+            try {
+                getStore().clear();
+                mainHandler.post(onCleared);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    private HistoryStore getStore() throws IOException {
+        if (store == null) {
+            store = new HistoryStore(storeFile, SkinClassifier.CLASS_NAMES);
+        }
+        return store;
+    }
+}
@@ -0,0 +1,556 @@
+package com.example.myapplication;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Append-only on-disk scan history.
+//
+// File layout: [int MAGIC][int VERSION] then records of [int length][byte type][payload].
+// Insert records are [long id][UTF disease][double confidence][long timestamp][UTF imageUri]
+// [UTF scanKey][UTF notes], with "" for a missing string; every field is always written.
+// In memory the rows are columns of primitives (offset, id, timestamp, class, confidence) plus
+// sort orders over them; full rows are read from disk one page at a time.
+// Pages are keyset based (newest first, ordered by timestamp then id) so a page costs
+// O(log n + pageSize) no matter how deep the user has scrolled.
+// Search combines an inverted index over disease and notes with range indexes on date and
+// confidence as bitsets over rows, so a query costs O(n / 64 + matches) without touching disk.
+// Pure Java, no Android dependencies.
+final class HistoryStore {
+
+    static final class Cursor {
+        final long timestamp;
+        final long id;
+
+        Cursor(long timestamp, long id) {
+            this.timestamp = timestamp;
+            this.id = id;
+        }
+
+        static Cursor after(HistoryItem item) {
+            return new Cursor(item.timestamp, item.id);
+        }
+    }
+
+    // Rows matching a search, newest first. Row numbers restart at 0 after clear(), so a result is
+    // tied to the store generation it came from and readRows rejects it once that has changed.
+    static final class SearchResult {
+        final int[] rows;
+        final int generation;
+
+        SearchResult(int[] rows, int generation) {
+            this.rows = rows;
+            this.generation = generation;
+        }
+    }
+
+    // Search criteria; a null text or disease and the full time and confidence ranges leave
+    // that part unconstrained
+    static final class Filter {
+        // Every word must prefix-match a word of the disease or the notes
+        final String text;
+        final String disease;
+        // minConfidence inclusive, maxConfidence exclusive, so adjacent ranges share no gap;
+        // 0 and Double.POSITIVE_INFINITY leave them open
+        final double minConfidence;
+        final double maxConfidence;
+        // Epoch millis, fromTime inclusive and toTime exclusive; Long.MIN_VALUE and
+        // Long.MAX_VALUE leave them open
+        final long fromTime;
+        final long toTime;
+
+        Filter(String text, String disease, double minConfidence, double maxConfidence,
+               long fromTime, long toTime) {
+            this.text = text;
+            this.disease = disease;
+            this.minConfidence = minConfidence;
+            this.maxConfidence = maxConfidence;
+            this.fromTime = fromTime;
+            this.toTime = toTime;
+        }
+    }
+
+    // Reads aggregates under the store's lock
+    interface AnalyticsQuery<T> {
+        T run(HistoryAnalytics analytics);
+    }
+
+    private static final int MAGIC = 0x53484953; // "SHIS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+
+    private static final byte TYPE_INSERT = 1;
+    // [long id][UTF notes]: replaces the notes of an earlier row
+    private static final byte TYPE_NOTES = 2;
+
+    private final File file;
+    private RandomAccessFile reader;
+    private DataOutputStream writer;
+    private long fileLength;
+    // Bumped by clear(); see SearchResult
+    private int generation;
+
+    // Row-indexed columns (row = insertion order)
+    private int rowCount;
+    private long[] offsets = new long[64];
+    private long[] ids = new long[64];
+    private long[] timestamps = new long[64];
+    // Index into analytics' class names
+    private int[] classIds = new int[64];
+    private double[] confidences = new double[64];
+    // Mostly null; kept in memory so the text index can be updated when they change
+    private String[] notes = new String[64];
+
+    // Rows sorted ascending by (timestamp, id): all rows, and per class id
+    private final IntList byTime = new IntList();
+    private IntList[] byClass = new IntList[0];
+    // Rows sorted ascending by (confidence, row); rebuilt in one sort after load
+    private final IntList byConfidence = new IntList();
+    private boolean loading;
+    // Disease and notes of each row, documents numbered by row
+    private final TextIndex textIndex = new TextIndex();
+    // Scan idempotency key -> id, so a replayed scan maps to the entry it already created
+    private final Map<String, Long> idsByScanKey = new HashMap<>();
+
+    // Updated by index(), so it covers every row without re-reading any. Also numbers the classes.
+    private final HistoryAnalytics analytics;
+
+    private long nextId = 1;
+
+    HistoryStore(File file) throws IOException {
+        this(file, new String[0]);
+    }
+
+    // classNames fixes the analytics class order (the model's); other diseases are numbered as seen
+    HistoryStore(File file, String[] classNames) throws IOException {
+        this.file = file;
+        analytics = new HistoryAnalytics(classNames);
+        load();
+    }
+
+    synchronized int size() {
+        return rowCount;
+    }
+
+    synchronized boolean hasScanKey(String scanKey) {
+        return idsByScanKey.containsKey(scanKey);
+    }
+
+    // Returns the new id, or the existing id if an entry with the same scan key was already stored
+    synchronized long insert(HistoryItem item) throws IOException {
+        if (item.scanKey != null) {
+            Long existing = idsByScanKey.get(item.scanKey);
+            if (existing != null) {
+                item.id = existing;
+                return existing;
+            }
+        }
+        item.id = nextId++;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(TYPE_INSERT);
+        out.writeLong(item.id);
+        out.writeUTF(item.disease);
+        out.writeDouble(item.confidence);
+        out.writeLong(item.timestamp);
+        out.writeUTF(item.imageUri != null ? item.imageUri : "");
+        out.writeUTF(item.scanKey != null ? item.scanKey : "");
+        out.writeUTF(item.notes != null ? item.notes : "");
+
+        long offset = fileLength;
+        writer.writeInt(bytes.size());
+        bytes.writeTo(writer);
+        writer.flush();
+        fileLength += 4 + bytes.size();
+
+        index(offset, item.id, item.timestamp, item.disease, item.confidence, item.scanKey, item.notes);
+        return item.id;
+    }
+
+    // Appends a notes record for the row with id; empty or null notes clear them
+    synchronized void updateNotes(long id, String text) throws IOException {
+        int row = rowOf(id);
+        if (row < 0) throw new IOException("No history entry " + id);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(TYPE_NOTES);
+        out.writeLong(id);
+        out.writeUTF(text != null ? text : "");
+
+        writer.writeInt(bytes.size());
+        bytes.writeTo(writer);
+        writer.flush();
+        fileLength += 4 + bytes.size();
+
+        setNotes(row, text);
+    }
+
+    // Rows matching filter, newest first. Rows are stable until clear(), so callers can page
+    // through the result with readRows while new scans are inserted.
+    synchronized SearchResult search(Filter filter) {
+        return new SearchResult(matchRows(filter), generation);
+    }
+
+    private int[] matchRows(Filter filter) {
+        int words = (rowCount >> 6) + 1;
+        long[] candidates = null;
+
+        if (filter.text != null && !filter.text.trim().isEmpty()) {
+            candidates = textIndex.match(filter.text);
+            if (candidates == null) return new int[0];
+        }
+        if (filter.disease != null) {
+            IntList rows = rowsOf(filter.disease);
+            if (rows == null) return new int[0];
+            candidates = intersect(candidates, rows, 0, rows.size(), words);
+        }
+        if (filter.minConfidence > 0 || filter.maxConfidence != Double.POSITIVE_INFINITY) {
+            int start = confidenceBound(filter.minConfidence, false);
+            int end = confidenceBound(filter.maxConfidence, false);
+            candidates = intersect(candidates, byConfidence, start, end, words);
+        }
+
+        // The time range is walked directly, newest first, which also orders the result
+        int start = filter.fromTime != Long.MIN_VALUE ? lowerBound(byTime, filter.fromTime, Long.MIN_VALUE) : 0;
+        int end = filter.toTime != Long.MAX_VALUE ? lowerBound(byTime, filter.toTime, Long.MIN_VALUE) : byTime.size();
+        IntList result = new IntList(candidates == null ? Math.max(0, end - start) : 64);
+        for (int i = end - 1; i >= start; i--) {
+            int row = byTime.get(i);
+            if (candidates == null || (row >> 6 < candidates.length && (candidates[row >> 6] & 1L << row) != 0)) {
+                result.add(row);
+            }
+        }
+        int[] rows = new int[result.size()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = result.get(i);
+        }
+        return rows;
+    }
+
+    // Reads rows[start, start + limit) of a search result; empty if clear() has run since the
+    // search, as its row numbers now name other entries
+    synchronized List<HistoryItem> readRows(SearchResult result, int start, int limit) throws IOException {
+        if (result.generation != generation) return new ArrayList<>();
+        int end = Math.min(result.rows.length, start + limit);
+        List<HistoryItem> page = new ArrayList<>(Math.max(0, end - start));
+        for (int i = start; i < end; i++) {
+            page.add(readRow(result.rows[i]));
+        }
+        return page;
+    }
+
+    // Newest-first page of at most limit rows strictly older than cursor (null for the first page).
+    // disease == null returns all diseases.
+    synchronized List<HistoryItem> queryPage(String disease, Cursor cursor, int limit) throws IOException {
+        IntList rows = disease == null ? byTime : rowsOf(disease);
+        if (rows == null || limit <= 0) return new ArrayList<>();
+
+        int end = cursor == null ? rows.size() : lowerBound(rows, cursor.timestamp, cursor.id);
+        int start = Math.max(0, end - limit);
+
+        List<HistoryItem> page = new ArrayList<>(end - start);
+        for (int i = end - 1; i >= start; i--) {
+            page.add(readRow(rows.get(i)));
+        }
+        return page;
+    }
+
+    synchronized <T> T queryAnalytics(AnalyticsQuery<T> query) {
+        return query.run(analytics);
+    }
+
+    // Every image a row points at; reads each row once, so only for background jobs
+    synchronized Set<String> imageUris() throws IOException {
+        Set<String> uris = new HashSet<>(rowCount * 2);
+        for (int row = 0; row < rowCount; row++) {
+            String imageUri = readRow(row).imageUri;
+            if (imageUri != null) uris.add(imageUri);
+        }
+        return uris;
+    }
+
+    synchronized void clear() throws IOException {
+        closeStreams();
+        writeHeader();
+        generation++;
+        rowCount = 0;
+        byTime.clear();
+        for (IntList rows : byClass) {
+            rows.clear();
+        }
+        idsByScanKey.clear();
+        byConfidence.clear();
+        textIndex.clear();
+        analytics.clear();
+        openStreams();
+    }
+
+    synchronized void close() throws IOException {
+        closeStreams();
+    }
+
+    private void load() throws IOException {
+        if (!file.exists() || file.length() < HEADER_SIZE) {
+            writeHeader();
+        }
+
+        long validLength = HEADER_SIZE;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Unsupported history file " + file);
+            }
+
+            loading = true;
+            long offset = HEADER_SIZE;
+            byte[] record = new byte[256];
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                    if (length <= 0) break;
+                    if (length > record.length) record = new byte[Math.max(length, record.length * 2)];
+                    in.readFully(record, 0, length);
+                } catch (EOFException e) {
+                    break; // Torn tail from a crash mid-append; dropped below
+                }
+
+                DataInputStream row = new DataInputStream(new ByteArrayInputStream(record, 0, length));
+                byte type = row.readByte();
+                if (type == TYPE_INSERT) {
+                    long id = row.readLong();
+                    String disease = row.readUTF();
+                    double confidence = row.readDouble();
+                    long timestamp = row.readLong();
+                    row.readUTF();
+                    String scanKey = row.readUTF();
+                    String text = row.readUTF();
+                    index(offset, id, timestamp, disease, confidence, scanKey.isEmpty() ? null : scanKey, text);
+                    nextId = Math.max(nextId, id + 1);
+                } else if (type == TYPE_NOTES) {
+                    int target = rowOf(row.readLong());
+                    String text = row.readUTF();
+                    if (target >= 0) setNotes(target, text);
+                }
+                offset += 4 + length;
+                validLength = offset;
+            }
+            loading = false;
+            sortByConfidence();
+        }
+
+        if (validLength < file.length()) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(validLength);
+            }
+        }
+        fileLength = validLength;
+        openStreams();
+    }
+
+    private void index(long offset, long id, long timestamp, String disease, double confidence,
+                       String scanKey, String text) {
+        if (rowCount == offsets.length) {
+            int capacity = rowCount * 2;
+            offsets = Arrays.copyOf(offsets, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            classIds = Arrays.copyOf(classIds, capacity);
+            confidences = Arrays.copyOf(confidences, capacity);
+            notes = Arrays.copyOf(notes, capacity);
+        }
+        int classId = analytics.classIndex(disease);
+        int row = rowCount++;
+        offsets[row] = offset;
+        ids[row] = id;
+        timestamps[row] = timestamp;
+        classIds[row] = classId;
+        confidences[row] = confidence;
+        notes[row] = text == null || text.isEmpty() ? null : text;
+        textIndex.add(row, searchText(row));
+        if (!loading) {
+            int index = confidenceBound(confidence, true);
+            byConfidence.insert(index, row);
+        }
+        if (scanKey != null) {
+            idsByScanKey.put(scanKey, id);
+        }
+
+        insertSorted(byTime, row);
+        if (classId >= byClass.length) {
+            int length = byClass.length;
+            byClass = Arrays.copyOf(byClass, classId + 1);
+            for (int c = length; c < byClass.length; c++) {
+                byClass[c] = new IntList();
+            }
+        }
+        insertSorted(byClass[classId], row);
+        analytics.record(classId, confidence, HistoryDates.epochDay(timestamp));
+    }
+
+    // Rows of a disease sorted by time, or null if it has never been seen
+    private IntList rowsOf(String disease) {
+        int classId = analytics.indexOf(disease);
+        return classId >= 0 && classId < byClass.length ? byClass[classId] : null;
+    }
+
+    private void setNotes(int row, String text) {
+        textIndex.remove(row, searchText(row));
+        notes[row] = text == null || text.isEmpty() ? null : text;
+        textIndex.add(row, searchText(row));
+    }
+
+    private String searchText(int row) {
+        String disease = analytics.className(classIds[row]);
+        return notes[row] != null ? disease + ' ' + notes[row] : disease;
+    }
+
+    // Ids are assigned in insertion order, so rows are sorted by id
+    private int rowOf(long id) {
+        int row = Arrays.binarySearch(ids, 0, rowCount, id);
+        return row >= 0 ? row : -1;
+    }
+
+    // First position in byConfidence whose confidence is >= value, or > value if after is set.
+    // Ties are ordered by row, so inserting at the "after" bound keeps the list sorted.
+    private int confidenceBound(double value, boolean after) {
+        int low = 0;
+        int high = byConfidence.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            double c = confidences[byConfidence.get(mid)];
+            if (c < value || (after && c == value)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // One primitive sort instead of a sorted insert per row while loading
+    private void sortByConfidence() {
+        long[] keys = new long[rowCount];
+        for (int row = 0; row < rowCount; row++) {
+            // Non-negative floats order the same as their bit patterns
+            keys[row] = (long) Float.floatToIntBits((float) Math.max(0, confidences[row])) << 32 | row;
+        }
+        Arrays.sort(keys);
+        byConfidence.clear();
+        for (long key : keys) {
+            byConfidence.add((int) key);
+        }
+    }
+
+    // candidates AND rows[start, end) as a bitset; null candidates means every row
+    private static long[] intersect(long[] candidates, IntList rows, int start, int end, int words) {
+        long[] bits = new long[words];
+        for (int i = start; i < end; i++) {
+            int row = rows.get(i);
+            bits[row >> 6] |= 1L << row;
+        }
+        if (candidates != null) {
+            for (int w = 0; w < words; w++) {
+                bits[w] &= w < candidates.length ? candidates[w] : 0;
+            }
+        }
+        return bits;
+    }
+
+    // New scans are almost always the newest, so this is an append in practice
+    private void insertSorted(IntList rows, int row) {
+        int size = rows.size();
+        if (size == 0 || compare(rows.get(size - 1), timestamps[row], ids[row]) < 0) {
+            rows.add(row);
+        } else {
+            rows.insert(lowerBound(rows, timestamps[row], ids[row]), row);
+        }
+    }
+
+    // First position whose key is >= (timestamp, id)
+    private int lowerBound(IntList rows, long timestamp, long id) {
+        int low = 0;
+        int high = rows.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(rows.get(mid), timestamp, id) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int compare(int row, long timestamp, long id) {
+        int c = Long.compare(timestamps[row], timestamp);
+        return c != 0 ? c : Long.compare(ids[row], id);
+    }
+
+    private HistoryItem readRow(int row) throws IOException {
+        reader.seek(offsets[row]);
+        int length = reader.readInt();
+        byte[] record = new byte[length];
+        reader.readFully(record);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        in.readByte();
+        long id = in.readLong();
+        String disease = in.readUTF();
+        double confidence = in.readDouble();
+        long timestamp = in.readLong();
+        String imageUri = in.readUTF();
+        String scanKey = in.readUTF();
+
+        HistoryItem item = new HistoryItem(disease, confidence, timestamp, imageUri.isEmpty() ? null : imageUri);
+        item.id = id;
+        item.scanKey = scanKey.isEmpty() ? null : scanKey;
+        // Current notes (from the insert record or a later notes record) are kept in memory
+        item.notes = notes[row];
+        return item;
+    }
+
+    private void writeHeader() throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file, false))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+        }
+        fileLength = HEADER_SIZE;
+    }
+
+    private void openStreams() throws IOException {
+        reader = new RandomAccessFile(file, "r");
+        writer = new DataOutputStream(new FileOutputStream(file, true));
+    }
+
+    private void closeStreams() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+        if (reader != null) {
+            reader.close();
+            reader = null;
+        }
+    }
+}
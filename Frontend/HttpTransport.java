@@ -0,0 +1,53 @@
+package com.example.myapplication;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+// RemoteTransport over HttpURLConnection. The platform keeps idle keep-alive sockets pooled per host,
+// so consecutive uploads reuse one connection as long as every response is read to the end and the
+// connection is never disconnect()ed. Pure Java.
+final class HttpTransport implements RemoteTransport {
+
+    @Override
+    public Response post(String url, String contentType, long contentLength, Body body, int timeoutMillis)
+            throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setConnectTimeout(timeoutMillis);
+        connection.setReadTimeout(timeoutMillis);
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", contentType);
+        connection.setRequestProperty("Connection", "keep-alive");
+        // Stream the body instead of letting the connection buffer all of it to compute a length
+        if (contentLength >= 0) {
+            connection.setFixedLengthStreamingMode(contentLength);
+        } else {
+            connection.setChunkedStreamingMode(0);
+        }
+
+        try (OutputStream out = connection.getOutputStream()) {
+            body.writeTo(out);
+        }
+
+        int code = connection.getResponseCode();
+        InputStream in = code >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        return new Response(code, in != null ? readFully(in) : "");
+    }
+
+    private static String readFully(InputStream in) throws IOException {
+        try (InputStream stream = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
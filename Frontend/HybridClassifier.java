@@ -0,0 +1,101 @@
+package com.example.myapplication;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.Uri;
+import android.os.SystemClock;
+import android.preference.PreferenceManager;
+
+import java.io.File;
+
+// Routes a saved photo to on-device or remote inference, whichever HybridPolicy currently
+// measures as faster. A failed remote scan falls back to the device, so the user always gets a result.
+final class HybridClassifier {
+
+    // Emulator alias for the host machine running app.py
+    static final String DEFAULT_SERVER_URL = "http://10.0.2.2:5000";
+
+    private static HybridClassifier instance;
+
+    private final SharedPreferences preferences;
+    private final File cacheDir;
+    private final InferenceEngine engine;
+    private final HybridPolicy policy = new HybridPolicy();
+    private final RemoteTransport transport = new HttpTransport();
+
+    // Guarded by this
+    private RemoteClassifier remote;
+    private String remoteUrl;
+
+    private HybridClassifier(Context context) {
+        preferences = PreferenceManager.getDefaultSharedPreferences(context.getApplicationContext());
+        cacheDir = context.getApplicationContext().getCacheDir();
+        engine = InferenceEngine.get(context);
+    }
+
+    static synchronized HybridClassifier get(Context context) {
+        if (instance == null) {
+            instance = new HybridClassifier(context);
+        }
+        return instance;
+    }
+
+    // Only file URIs can go remote (the payload is cut from the file); others stay on-device
+    void classify(Uri uri, ScanTracer.ScanTrace trace, InferenceEngine.Callback callback) {
+        if ("file".equals(uri.getScheme()) && uri.getPath() != null) {
+            classify(new File(uri.getPath()), trace, callback);
+        } else {
+            classifyLocal(uri, trace, callback);
+        }
+    }
+
+    // The callback runs on the main thread
+    void classify(File jpeg, ScanTracer.ScanTrace trace, InferenceEngine.Callback callback) {
+        policy.setRemoteEnabled(preferences.getBoolean("remoteInference", false));
+        long start = SystemClock.elapsedRealtime();
+        if (policy.choose(start) == HybridPolicy.Route.REMOTE) {
+            getRemote().classify(jpeg, new InferenceEngine.Callback() {
+                @Override
+                public void onResult(Prediction prediction) {
+                    policy.recordRemote(SystemClock.elapsedRealtime() - start);
+                    ScanTracer.mark(trace, ScanTracer.Stage.INFERENCE);
+                    callback.onResult(prediction);
+                }
+
+                @Override
+                public void onError(Exception e) {
+                    e.printStackTrace();
+                    policy.recordRemoteFailure(SystemClock.elapsedRealtime());
+                    classifyLocal(Uri.fromFile(jpeg), trace, callback);
+                }
+            });
+        } else {
+            classifyLocal(Uri.fromFile(jpeg), trace, callback);
+        }
+    }
+
+    private void classifyLocal(Uri uri, ScanTracer.ScanTrace trace, InferenceEngine.Callback callback) {
+        long start = SystemClock.elapsedRealtime();
+        engine.classify(uri, trace, new InferenceEngine.Callback() {
+            @Override
+            public void onResult(Prediction prediction) {
+                policy.recordLocal(SystemClock.elapsedRealtime() - start);
+                callback.onResult(prediction);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                callback.onError(e);
+            }
+        });
+    }
+
+    private synchronized RemoteClassifier getRemote() {
+        String url = preferences.getString("serverUrl", DEFAULT_SERVER_URL);
+        if (remote == null || !url.equals(remoteUrl)) {
+            remote = new RemoteClassifier(url, transport, cacheDir);
+            remoteUrl = url;
+        }
+        return remote;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.myapplication;
+
+// Chooses on-device or remote inference from measured end-to-end latency.
+// Each route keeps an EWMA of its latency; the faster one is used, and every PROBE_INTERVAL
+// scans the other route is tried so a stale estimate can recover. A remote failure sends
+// everything local for FAILURE_COOLDOWN_MS. Pure Java; thread-safe.
+final class HybridPolicy {
+
+    enum Route {
+        LOCAL, REMOTE
+    }
+
+    static final int PROBE_INTERVAL = 10;
+    static final long FAILURE_COOLDOWN_MS = 60_000;
+
+    private static final float SMOOTHING = 0.3f;
+
+    private boolean remoteEnabled;
+    private float localMillis = -1f;
+    private float remoteMillis = -1f;
+    private long remoteBlockedUntil;
+    private int decisions;
+
+    synchronized void setRemoteEnabled(boolean enabled) {
+        remoteEnabled = enabled;
+    }
+
+    synchronized Route choose(long nowMillis) {
+        if (!remoteEnabled || nowMillis < remoteBlockedUntil) return Route.LOCAL;
+
+        // Measure each route once before comparing
+        if (localMillis < 0) return Route.LOCAL;
+        if (remoteMillis < 0) return Route.REMOTE;
+
+        Route faster = remoteMillis < localMillis ? Route.REMOTE : Route.LOCAL;
+        if (++decisions % PROBE_INTERVAL == 0) {
+            return faster == Route.REMOTE ? Route.LOCAL : Route.REMOTE;
+        }
+        return faster;
+    }
+
+    synchronized void recordLocal(long millis) {
+        localMillis = smooth(localMillis, millis);
+    }
+
+    synchronized void recordRemote(long millis) {
+        remoteMillis = smooth(remoteMillis, millis);
+    }
+
+    synchronized void recordRemoteFailure(long nowMillis) {
+        remoteBlockedUntil = nowMillis + FAILURE_COOLDOWN_MS;
+        // Forget the old estimate so the next probe is judged on fresh numbers
+        remoteMillis = -1f;
+    }
+
+    synchronized float getLocalMillis() {
+        return localMillis;
+    }
+
+    synchronized float getRemoteMillis() {
+        return remoteMillis;
+    }
+
+    private static float smooth(float current, long sample) {
+        return current < 0 ? sample : current + SMOOTHING * (sample - current);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.myapplication;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Perceptual difference hash (dHash) computed from the model input tensor, so it costs one
+// pass over pixels that preprocessing has already produced. Pure Java.
+final class ImageHash {
+
+    private static final int GRID_WIDTH = 9;
+    private static final int GRID_HEIGHT = 8;
+
+    private ImageHash() {}
+
+    // tensor holds size * size RGB floats starting at index 0; its position is left untouched.
+    // luma is scratch space of at least GRID_WIDTH * GRID_HEIGHT floats.
+    static long dHash(ByteBuffer tensor, int size, float[] luma) {
+        Arrays.fill(luma, 0, GRID_WIDTH * GRID_HEIGHT, 0f);
+
+        // Box-average the image down to a 9x8 luma grid
+        for (int y = 0; y < size; y++) {
+            int cellRow = y * GRID_HEIGHT / size * GRID_WIDTH;
+            int rowBase = y * size * 3 * 4;
+            for (int x = 0; x < size; x++) {
+                int index = rowBase + x * 12;
+                float r = tensor.getFloat(index);
+                float g = tensor.getFloat(index + 4);
+                float b = tensor.getFloat(index + 8);
+                luma[cellRow + x * GRID_WIDTH / size] += 0.299f * r + 0.587f * g + 0.114f * b;
+            }
+        }
+
+        // size is rarely a multiple of the grid, so turn the sums into means before comparing
+        for (int row = 0; row < GRID_HEIGHT; row++) {
+            int rows = cellSpan(row, GRID_HEIGHT, size);
+            for (int col = 0; col < GRID_WIDTH; col++) {
+                luma[row * GRID_WIDTH + col] /= rows * cellSpan(col, GRID_WIDTH, size);
+            }
+        }
+
+        // One bit per horizontal neighbour comparison
+        long hash = 0L;
+        for (int row = 0; row < GRID_HEIGHT; row++) {
+            for (int col = 0; col < GRID_WIDTH - 1; col++) {
+                int cell = row * GRID_WIDTH + col;
+                hash = (hash << 1) | (luma[cell] > luma[cell + 1] ? 1L : 0L);
+            }
+        }
+        return hash;
+    }
+
+    // Number of pixels p in [0, size) with p * cells / size == cell
+    private static int cellSpan(int cell, int cells, int size) {
+        int start = (cell * size + cells - 1) / cells;
+        int end = ((cell + 1) * size + cells - 1) / cells;
+        return end - start;
+    }
+
+    static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    static int scratchSize() {
+        return GRID_WIDTH * GRID_HEIGHT;
+    }
+}
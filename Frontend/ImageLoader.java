@@ -0,0 +1,359 @@
+package com.example.myapplication;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.widget.ImageView;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Asynchronous, cancellable bitmap loading for list rows and full-screen previews.
+// Lookup order: memory cache -> thumbnail file on disk -> decode of the original source.
+// Sources are always decoded with inSampleSize into pooled bitmaps, never at camera resolution,
+// and turned upright per their EXIF orientation.
+// Must be called from the main thread.
+public final class ImageLoader {
+
+    private static final String TAG = "ImageLoader";
+
+    static final int THUMB_SIZE = 192;
+
+    private static ImageLoader instance;
+
+    private final Context appContext;
+    private final File thumbDir;
+    private final BitmapCache cache;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Keys of prefetches in flight; main thread only
+    private final Set<String> prefetching = new HashSet<>();
+    private final ExecutorService decoders = Executors.newFixedThreadPool(2, r -> {
+        Thread thread = new Thread(r, "Image decode");
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+
+    private ImageLoader(Context context) {
+        appContext = context.getApplicationContext();
+        thumbDir = new File(appContext.getFilesDir(), "thumbs");
+        // 1/8 of the heap, as recommended for in-memory bitmap caches
+        cache = new BitmapCache((int) (Runtime.getRuntime().maxMemory() / 8));
+    }
+
+    public static synchronized ImageLoader get(Context context) {
+        if (instance == null) {
+            instance = new ImageLoader(context);
+        }
+        return instance;
+    }
+
+    // Scan thumbnails live next to the history log, keyed by history id
+    File thumbnailFile(long historyId) {
+        return new File(thumbDir, historyId + ".jpg");
+    }
+
+    // Called once at save time so list rows never touch the full capture. Any thread: the decode
+    // runs on the decoder pool, so whoever saves the entry is not held up by it.
+    void createThumbnail(long historyId, String sourceUri) {
+        if (sourceUri == null) return;
+        decoders.execute(() -> {
+            try {
+                Bitmap thumb = decodeSquare(Uri.parse(sourceUri), THUMB_SIZE);
+                if (thumb != null) {
+                    writeThumbnail(thumb, thumbnailFile(historyId));
+                    cache.offerToPool(thumb);
+                }
+            } catch (IOException e) {
+                Log.w(TAG, "Thumbnail failed for " + sourceUri, e);
+            }
+        });
+    }
+
+    void loadThumbnail(HistoryItem item, ImageView view) {
+        String key = "thumb:" + item.id;
+        load(view, key, () -> {
+            File file = thumbnailFile(item.id);
+            if (file.exists()) {
+                cache.diskHits.incrementAndGet();
+                return decodeFile(file, THUMB_SIZE);
+            }
+
+            // Saved before thumbnails existed (or the write failed): build it now, once
+            cache.misses.incrementAndGet();
+            if (item.imageUri == null) return null;
+            Bitmap thumb = decodeSquare(Uri.parse(item.imageUri), THUMB_SIZE);
+            if (thumb != null) {
+                writeThumbnail(thumb, file);
+            }
+            return thumb;
+        });
+    }
+
+    public void loadAsset(String assetName, ImageView view, int targetSize) {
+        load(view, "asset:" + assetName, () -> {
+            cache.misses.incrementAndGet();
+            return decodeStream(() -> appContext.getAssets().open(assetName), targetSize);
+        });
+    }
+
+    // Decodes an asset into the memory cache before any view asks for it, e.g. for list rows about
+    // to scroll in; a later loadAsset with the same name then binds without waiting for a decode
+    public void prefetchAsset(String assetName, int targetSize) {
+        String key = "asset:" + assetName;
+        if (cache.contains(key) || !prefetching.add(key)) return;
+        decoders.execute(() -> {
+            cache.misses.incrementAndGet();
+            Bitmap bitmap;
+            try {
+                bitmap = decodeStream(() -> appContext.getAssets().open(assetName), targetSize);
+            } catch (IOException e) {
+                bitmap = null;
+            }
+            Bitmap result = bitmap;
+            mainHandler.post(() -> {
+                prefetching.remove(key);
+                if (result == null) return;
+                if (cache.contains(key)) {
+                    cache.offerToPool(result);
+                } else {
+                    cache.put(key, result);
+                }
+            });
+        });
+    }
+
+    // Decodes uri just large enough to cover the view, so the cost does not grow with camera megapixels
+    public void loadImage(Uri uri, ImageView view) {
+        int width = targetDimension(view.getWidth(), view.getLayoutParams() != null ? view.getLayoutParams().width : 0,
+                view.getResources().getDisplayMetrics().widthPixels);
+        int height = targetDimension(view.getHeight(), view.getLayoutParams() != null ? view.getLayoutParams().height : 0,
+                view.getResources().getDisplayMetrics().heightPixels);
+        load(view, "image:" + uri + "@" + width + "x" + height, () -> {
+            cache.misses.incrementAndGet();
+            return decodeStream(() -> openUri(uri), width, height);
+        });
+    }
+
+    // Cancels any decode for view and releases what it shows; call when its screen is destroyed
+    public void cancel(ImageView view) {
+        Binding binding = (Binding) view.getTag(R.id.imageLoaderBinding);
+        if (binding == null) return;
+        if (binding.task != null) {
+            binding.task.cancel(true);
+            binding.task = null;
+        }
+        binding.key = null;
+        if (binding.shown != null) {
+            cache.onDetached(binding.shown);
+            binding.shown = null;
+        }
+        view.setImageDrawable(null);
+    }
+
+    String getStats() {
+        return cache.getStats();
+    }
+
+    private interface Decoder {
+        Bitmap decode() throws IOException;
+    }
+
+    private interface StreamOpener {
+        InputStream open() throws IOException;
+    }
+
+    // Per-view binding: the key it should show, the in-flight task and the bitmap it holds
+    private static final class Binding {
+        String key;
+        Future<?> task;
+        Bitmap shown;
+    }
+
+    private void load(ImageView view, String key, Decoder decoder) {
+        Binding binding = (Binding) view.getTag(R.id.imageLoaderBinding);
+        if (binding == null) {
+            binding = new Binding();
+            view.setTag(R.id.imageLoaderBinding, binding);
+        }
+        if (key.equals(binding.key) && binding.shown != null) return;
+
+        // Row was recycled: cancel the decode for its previous item
+        if (binding.task != null) {
+            binding.task.cancel(true);
+            binding.task = null;
+        }
+        binding.key = key;
+
+        Bitmap cached = cache.get(key);
+        if (cached != null) {
+            show(view, binding, cached);
+            return;
+        }
+
+        show(view, binding, null);
+        Binding target = binding;
+        binding.task = decoders.submit(() -> {
+            Bitmap bitmap;
+            try {
+                bitmap = decoder.decode();
+            } catch (IOException e) {
+                bitmap = null;
+            }
+            if (bitmap == null || Thread.currentThread().isInterrupted()) {
+                if (bitmap != null) cache.offerToPool(bitmap);
+                return;
+            }
+
+            Bitmap result = bitmap;
+            mainHandler.post(() -> {
+                cache.put(key, result);
+                if (key.equals(target.key)) {
+                    target.task = null;
+                    show(view, target, result);
+                }
+            });
+        });
+    }
+
+    private void show(ImageView view, Binding binding, Bitmap bitmap) {
+        if (binding.shown != null) {
+            cache.onDetached(binding.shown);
+        }
+        binding.shown = bitmap;
+        if (bitmap != null) {
+            cache.onAttached(bitmap);
+            view.setImageBitmap(bitmap);
+        } else {
+            view.setImageResource(R.drawable.ic_placeholder);
+        }
+    }
+
+    private Bitmap decodeFile(File file, int targetSize) throws IOException {
+        return decodeStream(() -> new FileInputStream(file), targetSize);
+    }
+
+    private Bitmap decodeStream(StreamOpener opener, int targetSize) throws IOException {
+        return decodeStream(opener, targetSize, targetSize);
+    }
+
+    private Bitmap decodeStream(StreamOpener opener, int targetWidth, int targetHeight) throws IOException {
+        int rotation;
+        try (InputStream in = opener.open()) {
+            rotation = ImagePreprocessor.exifRotation(in);
+        }
+        Bitmap bitmap = decodeStored(opener, rotation % 180 == 0 ? targetWidth : targetHeight,
+                rotation % 180 == 0 ? targetHeight : targetWidth);
+        if (bitmap == null || rotation == 0) return bitmap;
+
+        Bitmap upright = ImagePreprocessor.rotated(bitmap, rotation);
+        cache.offerToPool(bitmap);
+        return upright;
+    }
+
+    // Target size in the stored (unrotated) orientation
+    private Bitmap decodeStored(StreamOpener opener, int targetWidth, int targetHeight) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        try (InputStream in = opener.open()) {
+            BitmapFactory.decodeStream(in, null, options);
+        }
+        if (options.outWidth <= 0 || options.outHeight <= 0) return null;
+
+        options.inSampleSize = sampleSizeToCover(options.outWidth, options.outHeight, targetWidth, targetHeight);
+        options.inJustDecodeBounds = false;
+        options.inMutable = true;
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        int width = ceilDiv(options.outWidth, options.inSampleSize);
+        int height = ceilDiv(options.outHeight, options.inSampleSize);
+        options.inBitmap = cache.takeReusable(width, height, options.inPreferredConfig);
+
+        try (InputStream in = opener.open()) {
+            return BitmapFactory.decodeStream(in, null, options);
+        } catch (IllegalArgumentException e) {
+            // inBitmap could not be reused for this image; decode into a fresh bitmap
+            options.inBitmap = null;
+            try (InputStream in = opener.open()) {
+                return BitmapFactory.decodeStream(in, null, options);
+            }
+        }
+    }
+
+    // Downsampled decode of the source, center-cropped to a size x size square
+    private Bitmap decodeSquare(Uri uri, int size) throws IOException {
+        Bitmap source = decodeStream(() -> openUri(uri), size);
+        if (source == null) return null;
+
+        Bitmap square = cache.takeReusable(size, size, Bitmap.Config.ARGB_8888);
+        if (square == null || square.getWidth() != size || square.getHeight() != size) {
+            if (square != null) cache.offerToPool(square);
+            square = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        }
+        new Canvas(square).drawBitmap(source, ImagePreprocessor.centerSquare(source.getWidth(), source.getHeight()),
+                new Rect(0, 0, size, size), new Paint(Paint.FILTER_BITMAP_FLAG));
+        cache.offerToPool(source);
+        return square;
+    }
+
+    private InputStream openUri(Uri uri) throws IOException {
+        if (uri.getScheme() == null || "file".equals(uri.getScheme())) {
+            return new FileInputStream(uri.getPath());
+        }
+        InputStream in = appContext.getContentResolver().openInputStream(uri);
+        if (in == null) throw new IOException("Cannot open " + uri);
+        return in;
+    }
+
+    private void writeThumbnail(Bitmap thumb, File file) throws IOException {
+        if (!thumbDir.exists() && !thumbDir.mkdirs()) {
+            throw new IOException("Cannot create " + thumbDir);
+        }
+        // A row can ask for a thumbnail that is still being created; per-thread temp files keep the
+        // two writers apart, and either rename leaves a complete file
+        File temp = new File(file.getPath() + "." + Thread.currentThread().getId() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            thumb.compress(Bitmap.CompressFormat.JPEG, 85, out);
+        }
+        if (!temp.renameTo(file)) {
+            throw new IOException("Cannot write " + file);
+        }
+    }
+
+    // Largest power of two that keeps the short side at or above targetSize
+    static int sampleSizeFor(int width, int height, int targetSize) {
+        return sampleSizeToCover(width, height, targetSize, targetSize);
+    }
+
+    // Largest power of two that keeps both sides at or above the target (enough for centerCrop)
+    static int sampleSizeToCover(int width, int height, int targetWidth, int targetHeight) {
+        int sampleSize = 1;
+        while (width / (sampleSize * 2) >= targetWidth && height / (sampleSize * 2) >= targetHeight) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    // Measured size, else a fixed layout size, else the screen (views are often not laid out yet)
+    private static int targetDimension(int measured, int layoutSize, int screenSize) {
+        if (measured > 0) return measured;
+        return layoutSize > 0 ? layoutSize : screenSize;
+    }
+
+    private static int ceilDiv(int value, int divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.myapplication;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.media.ExifInterface;
+import android.net.Uri;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+// Bitmap -> model input tensor helpers shared by single-image and batch inference, plus the EXIF
+// orientation handling every decode of a photo goes through
+final class ImagePreprocessor {
+
+    static final int TENSOR_BYTES = SkinClassifier.INPUT_SIZE * SkinClassifier.INPUT_SIZE * 3 * 4;
+
+    private ImagePreprocessor() {}
+
+    // Decodes at the smallest power-of-two scale that still covers the model input, upright
+    static Bitmap decodeForModel(Context context, Uri uri) throws IOException {
+        int rotation;
+        try (InputStream in = context.getContentResolver().openInputStream(uri)) {
+            rotation = exifRotation(in);
+        }
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        try (InputStream in = context.getContentResolver().openInputStream(uri)) {
+            BitmapFactory.decodeStream(in, null, options);
+        }
+
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = ImageLoader.sampleSizeFor(options.outWidth, options.outHeight, SkinClassifier.INPUT_SIZE);
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        try (InputStream in = context.getContentResolver().openInputStream(uri)) {
+            Bitmap bitmap = BitmapFactory.decodeStream(in, null, options);
+            if (bitmap == null) {
+                throw new IOException("Unable to decode " + uri);
+            }
+            return rotate(bitmap, rotation);
+        }
+    }
+
+    // Clockwise degrees that turn the image upright. Camera2 and most galleries record rotation in
+    // the EXIF orientation tag rather than in the pixels; 0 without a tag or for non-JPEG sources.
+    static int exifRotation(InputStream in) {
+        if (in == null) return 0;
+        try {
+            switch (new ExifInterface(in).getAttributeInt(
+                    ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL)) {
+                case ExifInterface.ORIENTATION_ROTATE_90:
+                    return 90;
+                case ExifInterface.ORIENTATION_ROTATE_180:
+                    return 180;
+                case ExifInterface.ORIENTATION_ROTATE_270:
+                    return 270;
+                default:
+                    return 0;
+            }
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    // bitmap turned clockwise by degrees; bitmap is recycled if a new one had to be made
+    static Bitmap rotate(Bitmap bitmap, int degrees) {
+        Bitmap rotated = rotated(bitmap, degrees);
+        if (rotated != bitmap) {
+            bitmap.recycle();
+        }
+        return rotated;
+    }
+
+    // Like rotate, but leaves bitmap alone so callers that pool bitmaps can reuse it
+    static Bitmap rotated(Bitmap bitmap, int degrees) {
+        if (degrees == 0) return bitmap;
+        Matrix matrix = new Matrix();
+        matrix.postRotate(degrees);
+        return Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, true);
+    }
+
+    // The part of a width x height image the model sees: its centered square. Shared by the
+    // on-device tensor, the remote payload and thumbnails (YuvTensorConverter crops the same way)
+    // so a photo gives the same model input whichever route classifies it.
+    static Rect centerSquare(int width, int height) {
+        int side = Math.min(width, height);
+        int left = (width - side) / 2;
+        int top = (height - side) / 2;
+        return new Rect(left, top, left + side, top + side);
+    }
+
+    // Crops the centered square, scales it to the model input and writes normalized RGB floats at
+    // out's current position. pixels must hold INPUT_SIZE * INPUT_SIZE ints; it is scratch space so
+    // callers can reuse it.
+    static void writeTensor(Bitmap bitmap, int[] pixels, ByteBuffer out) {
+        int size = SkinClassifier.INPUT_SIZE;
+        Bitmap scaled = bitmap;
+        if (bitmap.getWidth() != size || bitmap.getHeight() != size) {
+            scaled = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+            new Canvas(scaled).drawBitmap(bitmap, centerSquare(bitmap.getWidth(), bitmap.getHeight()),
+                    new Rect(0, 0, size, size), new Paint(Paint.FILTER_BITMAP_FLAG));
+        }
+
+        scaled.getPixels(pixels, 0, size, 0, 0, size, size);
+        if (scaled != bitmap) {
+            scaled.recycle();
+        }
+
+        for (int pixel : pixels) {
+            out.putFloat(((pixel >> 16) & 0xFF) / 255f);
+            out.putFloat(((pixel >> 8) & 0xFF) / 255f);
+            out.putFloat((pixel & 0xFF) / 255f);
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.myapplication;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.graphics.Bitmap;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.preference.PreferenceManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Owns the classifier and the single thread all inference runs on.
+// Results are always delivered on the main thread.
+public final class InferenceEngine {
+
+    public interface Callback {
+        void onResult(Prediction prediction);
+
+        void onError(Exception e);
+    }
+
+    public interface ReadyListener {
+        // Called on the main thread; loadMillis covers model mapping and interpreter creation
+        void onModelReady(long loadMillis, long warmUpMillis);
+    }
+
+    // Fills the classifier's input tensor in place; runs on the inference thread
+    public interface InputWriter {
+        void write(ByteBuffer input) throws Exception;
+
+        // Called exactly once, after write or instead of it when the scan fails before the input is
+        // written (e.g. the model cannot load), so camera frames held by the writer are always closed
+        default void release() {}
+    }
+
+    private static final int RESULT_CACHE_CAPACITY = 512;
+
+    private static InferenceEngine instance;
+
+    private final Context appContext;
+    private final SharedPreferences preferences;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "Inference");
+        thread.setPriority(Thread.NORM_PRIORITY + 1);
+        return thread;
+    });
+
+    // Only accessed on the inference thread
+    private SkinClassifier classifier;
+    private TfLiteSkinClassifier.Precision precision;
+    private ResultCache resultCache;
+    private final int[] pixels = new int[SkinClassifier.INPUT_SIZE * SkinClassifier.INPUT_SIZE];
+    private final float[] hashScratch = new float[ImageHash.scratchSize()];
+    private final float[] cachedScores = new float[SkinClassifier.CLASS_NAMES.length];
+    private long loadMillis = -1;
+    private long warmUpMillis = -1;
+
+    private InferenceEngine(Context context) {
+        appContext = context.getApplicationContext();
+        preferences = PreferenceManager.getDefaultSharedPreferences(appContext);
+    }
+
+    public static synchronized InferenceEngine get(Context context) {
+        if (instance == null) {
+            instance = new InferenceEngine(context);
+        }
+        return instance;
+    }
+
+    // Loads the model and runs one throwaway inference on a zero tensor (like predict.py), so the
+    // first real scan pays neither the load nor the interpreter's first-run setup. Queued ahead of
+    // any scan, so calling it early is all that is needed. Also called when the precision setting
+    // changes; if the preferred model is already warm this just reports the times again.
+    public void warmUp(ReadyListener listener) {
+        executor.execute(() -> {
+            try {
+                if (classifier == null || precision != TfLiteSkinClassifier.preferredPrecision(appContext, preferences)) {
+                    long start = SystemClock.elapsedRealtime();
+                    SkinClassifier current = getClassifier();
+                    long loaded = SystemClock.elapsedRealtime();
+
+                    ByteBuffer input = current.getInputBuffer();
+                    input.clear();
+                    while (input.remaining() >= 8) {
+                        input.putLong(0);
+                    }
+                    current.run();
+                    getResultCache(current);
+
+                    loadMillis = loaded - start;
+                    warmUpMillis = SystemClock.elapsedRealtime() - loaded;
+                }
+                long load = loadMillis;
+                long warmUp = warmUpMillis;
+                if (listener != null) {
+                    mainHandler.post(() -> listener.onModelReady(load, warmUp));
+                }
+            } catch (Exception e) {
+                // The first scan retries the load and reports the error to the user
+                e.printStackTrace();
+            }
+        });
+    }
+
+    public void classify(Uri uri, Callback callback) {
+        classify(uri, null, callback);
+    }
+
+    public void classify(Uri uri, ScanTracer.ScanTrace trace, Callback callback) {
+        executor.execute(() -> {
+            try {
+                Bitmap bitmap = ImagePreprocessor.decodeForModel(appContext, uri);
+                ScanTracer.mark(trace, ScanTracer.Stage.DECODE);
+                deliver(callback, classifyBitmap(bitmap, trace));
+                bitmap.recycle();
+            } catch (Exception e) {
+                deliverError(callback, e);
+            }
+            persistCache();
+        });
+    }
+
+    public void classify(Bitmap bitmap, Callback callback) {
+        executor.execute(() -> {
+            try {
+                deliver(callback, classifyBitmap(bitmap, null));
+            } catch (Exception e) {
+                deliverError(callback, e);
+            }
+            persistCache();
+        });
+    }
+
+    public void classify(InputWriter writer, Callback callback) {
+        classify(writer, null, callback);
+    }
+
+    public void classify(InputWriter writer, ScanTracer.ScanTrace trace, Callback callback) {
+        executor.execute(() -> {
+            try {
+                SkinClassifier current;
+                try {
+                    current = getClassifier();
+                    writer.write(current.getInputBuffer());
+                } finally {
+                    writer.release();
+                }
+                ScanTracer.mark(trace, ScanTracer.Stage.PREPROCESS);
+                deliver(callback, classifyPrepared(current, trace));
+            } catch (Exception e) {
+                deliverError(callback, e);
+            }
+            persistCache();
+        });
+    }
+
+    // Live preview frames: always inferred, and kept out of the result cache
+    public void classifyFrame(InputWriter writer, Callback callback) {
+        executor.execute(() -> {
+            try {
+                SkinClassifier current;
+                try {
+                    current = getClassifier();
+                    writer.write(current.getInputBuffer());
+                } finally {
+                    writer.release();
+                }
+                deliver(callback, new Prediction(current.run().clone(), current.getModelVersion()));
+            } catch (Exception e) {
+                deliverError(callback, e);
+            }
+        });
+    }
+
+    private Prediction classifyBitmap(Bitmap bitmap, ScanTracer.ScanTrace trace) throws IOException {
+        SkinClassifier current = getClassifier();
+        ByteBuffer input = current.getInputBuffer();
+        input.rewind();
+        ImagePreprocessor.writeTensor(bitmap, pixels, input);
+        ScanTracer.mark(trace, ScanTracer.Stage.PREPROCESS);
+        return classifyPrepared(current, trace);
+    }
+
+    // The input tensor is filled: reuse the result of a perceptually identical earlier scan if there is one
+    private Prediction classifyPrepared(SkinClassifier current, ScanTracer.ScanTrace trace) {
+        long hash = ImageHash.dHash(current.getInputBuffer(), SkinClassifier.INPUT_SIZE, hashScratch);
+        ResultCache cache = getResultCache(current);
+        float[] scores;
+        if (cache.lookup(hash, cachedScores)) {
+            scores = cachedScores;
+        } else {
+            scores = current.run();
+            cache.put(hash, scores);
+        }
+        ScanTracer.mark(trace, ScanTracer.Stage.INFERENCE);
+
+        // scores is reused by the classifier and the cache, so the prediction gets its own copy
+        Prediction prediction = new Prediction(scores.clone(), current.getModelVersion());
+        ScanTracer.mark(trace, ScanTracer.Stage.POSTPROCESS);
+        return prediction;
+    }
+
+    private ResultCache getResultCache(SkinClassifier current) {
+        if (resultCache == null) {
+            // One cache per precision, so switching back and forth keeps both warm
+            String name = precision == TfLiteSkinClassifier.Precision.FLOAT ? "result_cache.bin" : "result_cache_int8.bin";
+            resultCache = new ResultCache(new File(appContext.getFilesDir(), name),
+                    RESULT_CACHE_CAPACITY, SkinClassifier.CLASS_NAMES.length);
+            resultCache.open(current.getModelVersion());
+        }
+        return resultCache;
+    }
+
+    // After the result has been handed off, so the write never delays a scan
+    private void persistCache() {
+        if (resultCache == null) return;
+        try {
+            resultCache.save();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Runs work against the classifier on the inference thread (used by batch analysis)
+    public interface Task<T> {
+        T run(SkinClassifier classifier) throws Exception;
+    }
+
+    public <T> Future<T> submit(Task<T> task) {
+        return executor.submit(() -> task.run(getClassifier()));
+    }
+
+    // Follows the "highAccuracy" setting, so a change applies from the next scan without a restart
+    private SkinClassifier getClassifier() throws IOException {
+        TfLiteSkinClassifier.Precision preferred = TfLiteSkinClassifier.preferredPrecision(appContext, preferences);
+        if (classifier == null || precision != preferred) {
+            SkinClassifier next = new TfLiteSkinClassifier(appContext, preferred);
+            if (classifier != null) {
+                persistCache();
+                classifier.close();
+                resultCache = null;
+            }
+            classifier = next;
+            precision = preferred;
+        }
+        return classifier;
+    }
+
+    private void deliver(Callback callback, Prediction prediction) {
+        mainHandler.post(() -> callback.onResult(prediction));
+    }
+
+    private void deliverError(Callback callback, Exception e) {
+        mainHandler.post(() -> callback.onError(e));
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.myapplication;
+
+import java.util.Arrays;
+
+// Growable list of primitive ints, avoids boxing in the in-memory indexes
+final class IntList {
+
+    private int[] values;
+    private int size;
+
+    IntList() {
+        this(16);
+    }
+
+    IntList(int capacity) {
+        values = new int[Math.max(1, capacity)];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(int index) {
+        return values[index];
+    }
+
+    void add(int value) {
+        ensureCapacity(size + 1);
+        values[size++] = value;
+    }
+
+    void insert(int index, int value) {
+        ensureCapacity(size + 1);
+        System.arraycopy(values, index, values, index + 1, size - index);
+        values[index] = value;
+        size++;
+    }
+
+    void removeAt(int index) {
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+    }
+
+    // Index of value in a list sorted ascending, else -(insertion point) - 1
+    int binarySearch(int value) {
+        return Arrays.binarySearch(values, 0, size, value);
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > values.length) {
+            values = Arrays.copyOf(values, Math.max(capacity, values.length * 2));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.myapplication;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Bundle;
+import android.preference.PreferenceManager;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.widget.SwitchCompat;
+import androidx.appcompat.widget.Toolbar;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.Future;
+
+// Shows per-stage scan latency percentiles and image cache hit rates, exports the raw histograms
+// and compares the float and int8 models
+public class LatencyDebugActivity extends AppCompatActivity {
+
+    private TextView latencySummary;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_latency_debug);
+
+        Toolbar toolbar = findViewById(R.id.toolbar);
+        setSupportActionBar(toolbar);
+
+        latencySummary = findViewById(R.id.latencySummary);
+
+        SharedPreferences preferences = PreferenceManager.getDefaultSharedPreferences(this);
+        SwitchCompat tracingSwitch = findViewById(R.id.tracingSwitch);
+        tracingSwitch.setChecked(ScanTracer.isEnabled());
+        tracingSwitch.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            preferences.edit().putBoolean("tracing", isChecked).apply();
+            ScanTracer.setEnabled(isChecked);
+        });
+
+        findViewById(R.id.btnResetLatency).setOnClickListener(v -> {
+            ScanTracer.reset();
+            refresh();
+        });
+        findViewById(R.id.btnExportLatency).setOnClickListener(v -> exportCsv());
+        findViewById(R.id.btnCompareModels).setOnClickListener(v -> compareModels());
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        refresh();
+    }
+
+    private void refresh() {
+        String latency;
+        if (ScanTracer.histogram(ScanTracer.Stage.TOTAL).getCount() == 0 && !ScanTracer.isEnabled()) {
+            latency = "Turn on recording, then scan a few images.";
+        } else {
+            latency = ScanTracer.summary();
+        }
+        // Image cache counters are kept whether or not latency recording is on
+        latencySummary.setText(latency + "\n\nImage cache: " + ImageLoader.get(this).getStats());
+    }
+
+    // Float vs int8 on the bundled validation set; takes a few seconds, during which scans wait
+    private void compareModels() {
+        latencySummary.setText("Comparing models…");
+        Context appContext = getApplicationContext();
+        Future<String> report = InferenceEngine.get(this).submit(classifier -> ModelComparison.run(appContext));
+        new Thread(() -> {
+            String text;
+            try {
+                text = report.get();
+            } catch (Exception e) {
+                e.printStackTrace();
+                text = "Comparison failed: " + (e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            }
+            String result = text;
+            runOnUiThread(() -> latencySummary.setText(result));
+        }, "Model comparison").start();
+    }
+
+    private void exportCsv() {
+        File dir = getExternalFilesDir("traces");
+        if (dir == null) {
+            Toast.makeText(this, "Storage unavailable", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        File file = new File(dir, "scan_latency_" + System.currentTimeMillis() + ".csv");
+        try (Writer out = new FileWriter(file)) {
+            ScanTracer.export(out);
+            Toast.makeText(this, "Saved to " + file.getAbsolutePath(), Toast.LENGTH_LONG).show();
+        } catch (IOException e) {
+            e.printStackTrace();
+            Toast.makeText(this, "Export failed", Toast.LENGTH_SHORT).show();
+        }
+    }
+}
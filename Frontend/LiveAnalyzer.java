@@ -0,0 +1,145 @@
+package com.example.myapplication;
+
+import android.media.Image;
+import android.media.ImageReader;
+import android.os.SystemClock;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Classifies preview frames continuously through a single-slot pipeline.
+// The camera thread only swaps the newest frame into the slot (closing the one it replaces),
+// so it never waits on inference; at most one frame is being classified at a time.
+class LiveAnalyzer implements ImageReader.OnImageAvailableListener {
+
+    interface Listener {
+        // Called on the main thread
+        void onLiveResult(SkinClassifier.Recognition top, float fps, long droppedFrames);
+    }
+
+    // One frame waiting + one being converted + one being acquired by the reader
+    static final int MAX_IMAGES = 3;
+
+    private static final float FPS_SMOOTHING = 0.2f;
+
+    private final InferenceEngine engine;
+    private final Listener listener;
+    private final YuvTensorConverter converter = new YuvTensorConverter(SkinClassifier.INPUT_SIZE);
+
+    private final AtomicReference<Image> pending = new AtomicReference<>();
+    private final AtomicBoolean inFlight = new AtomicBoolean();
+    private final AtomicLong droppedFrames = new AtomicLong();
+
+    private volatile boolean running;
+    private volatile int rotation;
+
+    // Main thread only
+    private long lastResultTime;
+    private float fps;
+
+    LiveAnalyzer(InferenceEngine engine, Listener listener) {
+        this.engine = engine;
+        this.listener = listener;
+    }
+
+    void start(int rotation) {
+        this.rotation = rotation;
+        droppedFrames.set(0);
+        lastResultTime = 0;
+        fps = 0f;
+        running = true;
+    }
+
+    void stop() {
+        running = false;
+        Image stale = pending.getAndSet(null);
+        if (stale != null) {
+            stale.close();
+        }
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    float getFps() {
+        return fps;
+    }
+
+    long getDroppedFrames() {
+        return droppedFrames.get();
+    }
+
+    @Override
+    public void onImageAvailable(ImageReader reader) {
+        Image image = reader.acquireLatestImage();
+        if (image == null) return;
+        if (!running) {
+            image.close();
+            return;
+        }
+
+        Image stale = pending.getAndSet(image);
+        if (stale != null) {
+            stale.close();
+            droppedFrames.incrementAndGet();
+        }
+        scheduleNext();
+    }
+
+    private void scheduleNext() {
+        if (!inFlight.compareAndSet(false, true)) return;
+
+        Image frame = pending.getAndSet(null);
+        if (frame == null) {
+            inFlight.set(false);
+            // A frame may have landed between the swap and the reset
+            if (pending.get() != null) scheduleNext();
+            return;
+        }
+
+        int frameRotation = rotation;
+        engine.classifyFrame(new InferenceEngine.InputWriter() {
+            @Override
+            public void write(ByteBuffer input) {
+                Image.Plane[] planes = frame.getPlanes();
+                converter.convert(planes[0].getBuffer(), planes[1].getBuffer(), planes[2].getBuffer(),
+                        frame.getWidth(), frame.getHeight(),
+                        planes[0].getRowStride(), planes[1].getRowStride(), planes[1].getPixelStride(),
+                        frameRotation, input);
+            }
+
+            @Override
+            public void release() {
+                frame.close();
+            }
+        }, new InferenceEngine.Callback() {
+            @Override
+            public void onResult(Prediction prediction) {
+                updateFps();
+                if (running) {
+                    listener.onLiveResult(prediction.top(), fps, droppedFrames.get());
+                }
+                inFlight.set(false);
+                if (running) scheduleNext();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                e.printStackTrace();
+                inFlight.set(false);
+            }
+        });
+    }
+
+    private void updateFps() {
+        long now = SystemClock.elapsedRealtime();
+        if (lastResultTime != 0 && now > lastResultTime) {
+            float instant = 1000f / (now - lastResultTime);
+            fps = fps == 0f ? instant : fps + FPS_SMOOTHING * (instant - fps);
+        }
+        lastResultTime = now;
+    }
+}
@@ -8,7 +8,8 @@ import android.content.pm.PackageManager;
 import android.graphics.Bitmap;
 import android.net.Uri;
 import android.os.Bundle;
-import android.os.Handler;
+import android.os.SystemClock;
+import android.preference.PreferenceManager;
 import android.provider.MediaStore;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -19,6 +20,7 @@ import android.widget.GridView;
 import android.widget.ImageView;
 import android.widget.ProgressBar;
 import android.widget.TextView;
+import android.widget.Toast;
 
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
@@ -27,12 +29,14 @@ import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class MainActivity extends AppCompatActivity {
 
     private static final int PICK_IMAGE_REQUEST = 1;
     private static final int CAMERA_REQUEST = 2;
+    private static final int PICK_FOLDER_REQUEST = 3;
     private static final int CAMERA_PERMISSION_REQUEST = 100;
 
     private ImageView previewImage;
@@ -45,8 +49,16 @@ public class MainActivity extends AppCompatActivity {
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        // Start loading the model before inflating anything, so it is ready by the first scan
+        long createdAt = SystemClock.elapsedRealtime();
+        InferenceEngine.get(this).warmUp((loadMillis, warmUpMillis) -> ScanTracer.recordModelReady(
+                SystemClock.elapsedRealtime() - createdAt, loadMillis, warmUpMillis));
         setContentView(R.layout.activity_main);
 
+        ScanTracer.setEnabled(PreferenceManager.getDefaultSharedPreferences(this).getBoolean("tracing", false));
+        ScanQueue.get(this).start();
+        CaptureStorage.get(this).start();
+
         // Toolbar setup
         Toolbar toolbar = findViewById(R.id.toolbar);
         setSupportActionBar(toolbar);
@@ -79,6 +91,10 @@ public class MainActivity extends AppCompatActivity {
         // Button listeners
         findViewById(R.id.cameraButton).setOnClickListener(v -> checkAndOpenCamera());
         findViewById(R.id.galleryButton).setOnClickListener(v -> openGallery());
+        findViewById(R.id.galleryButton).setOnLongClickListener(v -> {
+            openFolder();
+            return true;
+        });
         findViewById(R.id.historyButton).setOnClickListener(v -> openHistory());
         findViewById(R.id.settingsButton).setOnClickListener(v -> openSettings());
     }
@@ -117,12 +133,18 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
-    // Opens gallery to choose an image
+    // Opens gallery to choose one image, or several for batch analysis
     private void openGallery() {
         Intent intent = new Intent();
         intent.setType("image/*");
         intent.setAction(Intent.ACTION_GET_CONTENT);
-        startActivityForResult(Intent.createChooser(intent, "Select Picture"), PICK_IMAGE_REQUEST);
+        intent.putExtra(Intent.EXTRA_ALLOW_MULTIPLE, true);
+        startActivityForResult(Intent.createChooser(intent, "Select Pictures"), PICK_IMAGE_REQUEST);
+    }
+
+    // Long press on Gallery: analyze every image in a folder
+    private void openFolder() {
+        startActivityForResult(new Intent(Intent.ACTION_OPEN_DOCUMENT_TREE), PICK_FOLDER_REQUEST);
     }
 
     private void openHistory() {
@@ -139,10 +161,24 @@ public class MainActivity extends AppCompatActivity {
         super.onActivityResult(requestCode, resultCode, data);
 
         if (resultCode == RESULT_OK) {
-            if (requestCode == PICK_IMAGE_REQUEST && data != null && data.getData() != null) {
+            if (requestCode == PICK_IMAGE_REQUEST && data != null
+                    && data.getClipData() != null && data.getClipData().getItemCount() > 1) {
+                Intent batch = new Intent(this, BatchAnalysisActivity.class);
+                batch.setClipData(data.getClipData());
+                batch.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
+                startActivity(batch);
+            } else if (requestCode == PICK_FOLDER_REQUEST && data != null && data.getData() != null) {
+                Intent batch = new Intent(this, BatchAnalysisActivity.class);
+                batch.putExtra(BatchAnalysisActivity.EXTRA_TREE_URI, data.getData().toString());
+                startActivity(batch);
+            } else if (requestCode == PICK_IMAGE_REQUEST && data != null && data.getClipData() != null) {
+                Uri selectedImageUri = data.getClipData().getItemAt(0).getUri();
+                displayImage(selectedImageUri);
+                importAndProcess(selectedImageUri);
+            } else if (requestCode == PICK_IMAGE_REQUEST && data != null && data.getData() != null) {
                 Uri selectedImageUri = data.getData();
                 displayImage(selectedImageUri);
-                processImage(selectedImageUri);
+                importAndProcess(selectedImageUri);
             } else if (requestCode == CAMERA_REQUEST && imageUri != null) {
                 displayImage(imageUri);
                 processImage(imageUri);
@@ -150,28 +186,72 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        ImageLoader.get(this).cancel(previewImage);
+    }
+
     // Displays selected or captured image
     private void displayImage(Uri uri) {
-        previewImage.setImageURI(uri);
         previewImage.setVisibility(View.VISIBLE);
+        ImageLoader.get(this).loadImage(uri, previewImage);
         noImageText.setVisibility(View.GONE);
         cameraIcon.setVisibility(View.GONE);
     }
 
-    // Simulates image processing and launches result screen
+    // The picked URI is only readable while this process holds the grant; scan a private copy
+    private void importAndProcess(Uri uri) {
+        if ("file".equals(uri.getScheme())) {
+            processImage(uri);
+            return;
+        }
+        progressBar.setVisibility(View.VISIBLE);
+        CaptureStorage.get(this).importImage(uri, file -> {
+            if (file != null) {
+                processImage(Uri.fromFile(file));
+            } else {
+                progressBar.setVisibility(View.GONE);
+                Toast.makeText(MainActivity.this, "Failed to load image", Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    // Runs on-device or remote inference (see HybridClassifier) and launches result screen
     private void processImage(Uri uri) {
         progressBar.setVisibility(View.VISIBLE);
 
-        new Handler().postDelayed(() -> {
-            progressBar.setVisibility(View.GONE);
+        ScanTracer.ScanTrace trace = ScanTracer.start();
+        ScanQueue queue = ScanQueue.get(this);
+        String scanKey = queue.enqueue(uri);
+        DiseaseCatalog.get(this).preload();
+        HybridClassifier.get(this).classify(uri, trace, new InferenceEngine.Callback() {
+            @Override
+            public void onResult(Prediction prediction) {
+                progressBar.setVisibility(View.GONE);
+                HistoryItem item = HistoryRepository.newItem(prediction, uri.toString());
+                item.scanKey = scanKey;
+                HistoryRepository.get(MainActivity.this).insertAll(Collections.singletonList(item),
+                        () -> queue.complete(scanKey));
+                ScanTracer.mark(trace, ScanTracer.Stage.PERSIST);
+                // The result is saved either way; only the navigation needs a live activity
+                if (isFinishing()) return;
+                prediction.attachTrace(trace);
+
+                Intent intent = new Intent(MainActivity.this, ResultActivity.class);
+                intent.putExtra("imageUri", uri.toString());
+                intent.putExtra(Prediction.EXTRA, prediction);
+                startActivity(intent);
+            }
 
-            Intent intent = new Intent(this, ResultActivity.class);
-            intent.putExtra("imageUri", uri.toString());
-            intent.putExtra("disease", "Acne");
-            intent.putExtra("confidence", 0.92);
-            intent.putExtra("description", "Common skin condition when hair follicles plug with oil and dead skin cells.");
-            startActivity(intent);
-        }, 2000);
+            @Override
+            public void onError(Exception e) {
+                progressBar.setVisibility(View.GONE);
+                queue.release(scanKey);
+                e.printStackTrace();
+                Toast.makeText(MainActivity.this, "Analysis failed", Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 }
 
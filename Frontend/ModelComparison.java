@@ -0,0 +1,133 @@
+package com.example.myapplication;
+
+import android.content.Context;
+import android.os.Debug;
+import android.os.SystemClock;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+
+// Runs the float and int8 models over the bundled validation set and reports latency, memory,
+// accuracy and how often the two agree on the top class. Must run on the inference thread
+// (InferenceEngine.submit) so scans never compete with it for cores.
+final class ModelComparison {
+
+    // Written by "Machine Learning/export_tflite.py"
+    static final String VALIDATION_ASSET = "validation_set.bin";
+
+    private static final int MAGIC = 0x53565331; // "SVS1"
+    private static final int SAMPLE_BYTES = SkinClassifier.INPUT_SIZE * SkinClassifier.INPUT_SIZE * 3;
+    // Each image is timed this many times; accuracy uses the first pass only
+    private static final int PASSES = 3;
+
+    private static final class Result {
+        final LatencyHistogram latency = new LatencyHistogram();
+        int[] predictions;
+        int modelBytes;
+        long heapBytes;
+        long loadMillis;
+        int correct;
+    }
+
+    private ModelComparison() {}
+
+    static String run(Context context) throws IOException {
+        byte[] labels;
+        byte[] pixels;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                context.getAssets().open(VALIDATION_ASSET)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Unsupported validation set");
+            }
+            int count = in.readInt();
+            labels = new byte[count];
+            pixels = new byte[count * SAMPLE_BYTES];
+            for (int i = 0; i < count; i++) {
+                labels[i] = in.readByte();
+                in.readFully(pixels, i * SAMPLE_BYTES, SAMPLE_BYTES);
+            }
+        }
+
+        Result floatResult = evaluate(context, TfLiteSkinClassifier.Precision.FLOAT, labels, pixels);
+        Result int8Result = evaluate(context, TfLiteSkinClassifier.Precision.INT8, labels, pixels);
+
+        int agree = 0;
+        for (int i = 0; i < labels.length; i++) {
+            if (floatResult.predictions[i] == int8Result.predictions[i]) agree++;
+        }
+
+        StringBuilder sb = new StringBuilder(String.format(Locale.US,
+                "Validation set: %d images, %d passes%n%n", labels.length, PASSES));
+        sb.append(String.format(Locale.US, "%-12s %9s %9s%n", "", "float", "int8"));
+        row(sb, "model MB", floatResult.modelBytes / 1e6, int8Result.modelBytes / 1e6);
+        row(sb, "heap MB", floatResult.heapBytes / 1e6, int8Result.heapBytes / 1e6);
+        row(sb, "load ms", floatResult.loadMillis, int8Result.loadMillis);
+        row(sb, "p50 ms", floatResult.latency.percentile(0.50) / 1e6, int8Result.latency.percentile(0.50) / 1e6);
+        row(sb, "p95 ms", floatResult.latency.percentile(0.95) / 1e6, int8Result.latency.percentile(0.95) / 1e6);
+        row(sb, "accuracy %", 100.0 * floatResult.correct / labels.length, 100.0 * int8Result.correct / labels.length);
+        sb.append(String.format(Locale.US, "%nTop-1 agreement: %d/%d (%.1f%%)%n",
+                agree, labels.length, 100.0 * agree / labels.length));
+        return sb.toString();
+    }
+
+    private static Result evaluate(Context context, TfLiteSkinClassifier.Precision precision,
+                                   byte[] labels, byte[] pixels) throws IOException {
+        Result result = new Result();
+        result.predictions = new int[labels.length];
+
+        // Native heap growth covers the interpreter's tensor arena; the mapped model is counted separately
+        long heapBefore = Debug.getNativeHeapAllocatedSize();
+        long start = SystemClock.elapsedRealtime();
+        TfLiteSkinClassifier classifier = new TfLiteSkinClassifier(context, precision);
+        try {
+            ByteBuffer input = classifier.getInputBuffer();
+            fill(input, pixels, 0);
+            classifier.run();
+            result.loadMillis = SystemClock.elapsedRealtime() - start;
+            result.heapBytes = Debug.getNativeHeapAllocatedSize() - heapBefore;
+            result.modelBytes = classifier.getModelBytes();
+
+            for (int pass = 0; pass < PASSES; pass++) {
+                for (int i = 0; i < labels.length; i++) {
+                    fill(input, pixels, i);
+                    long t0 = System.nanoTime();
+                    float[] scores = classifier.run();
+                    result.latency.record(System.nanoTime() - t0);
+
+                    if (pass == 0) {
+                        int top = argMax(scores);
+                        result.predictions[i] = top;
+                        if (top == labels[i]) result.correct++;
+                    }
+                }
+            }
+        } finally {
+            classifier.close();
+        }
+        return result;
+    }
+
+    // Same [0, 1] scaling as ImagePreprocessor and app.py
+    private static void fill(ByteBuffer input, byte[] pixels, int sample) {
+        input.rewind();
+        int offset = sample * SAMPLE_BYTES;
+        for (int i = 0; i < SAMPLE_BYTES; i++) {
+            input.putFloat((pixels[offset + i] & 0xFF) / 255f);
+        }
+    }
+
+    private static int argMax(float[] scores) {
+        int best = 0;
+        for (int i = 1; i < scores.length; i++) {
+            if (scores[i] > scores[best]) best = i;
+        }
+        return best;
+    }
+
+    private static void row(StringBuilder sb, String name, double floatValue, double int8Value) {
+        sb.append(String.format(Locale.US, "%-12s %9.1f %9.1f%n", name, floatValue, int8Value));
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.myapplication;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Rect;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Model-ready upload: the centered square the user framed the lesion in, scaled to the model input
+// and re-encoded. A few tens of KB instead of a full-sensor JPEG; the original stays on the device
+// for history. The server crops full uploads to the same square, so both reach the model alike.
+final class ModelPayload {
+
+    static final String FORMAT = "model-ready-v1";
+
+    private static final int JPEG_QUALITY = 90;
+
+    final File file;
+
+    private ModelPayload(File file) {
+        this.file = file;
+    }
+
+    // Writes the payload into dir; the caller deletes it once uploaded
+    static ModelPayload create(File source, File dir) throws IOException {
+        int rotation;
+        try (InputStream in = new FileInputStream(source)) {
+            rotation = ImagePreprocessor.exifRotation(in);
+        }
+
+        BitmapRegionDecoder decoder = BitmapRegionDecoder.newInstance(source.getPath(), false);
+        try {
+            Rect crop = ImagePreprocessor.centerSquare(decoder.getWidth(), decoder.getHeight());
+
+            // Only the crop is decoded, already subsampled close to the model input
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inSampleSize = ImageLoader.sampleSizeFor(crop.width(), crop.height(), SkinClassifier.INPUT_SIZE);
+            Bitmap region = decoder.decodeRegion(crop, options);
+            if (region == null) {
+                throw new IOException("Unable to decode " + source);
+            }
+            Bitmap scaled = Bitmap.createScaledBitmap(region, SkinClassifier.INPUT_SIZE, SkinClassifier.INPUT_SIZE, true);
+            if (scaled != region) {
+                region.recycle();
+            }
+            // A centered square stays the centered square when turned, so only the small bitmap rotates
+            scaled = ImagePreprocessor.rotate(scaled, rotation);
+
+            File file = File.createTempFile("payload_", ".jpg", dir);
+            try (OutputStream out = new FileOutputStream(file)) {
+                scaled.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, out);
+            } finally {
+                scaled.recycle();
+            }
+            return new ModelPayload(file);
+        } finally {
+            decoder.recycle();
+        }
+    }
+
+    Map<String, String> fields() {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("format", FORMAT);
+        return fields;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.myapplication;
+
+// Pure Java post-processing of the model output (no Android dependencies)
+final class Postprocessor {
+
+    private Postprocessor() {}
+
+    // Normalizes the scores in place if the model was exported without its softmax layer
+    static void ensureProbabilities(float[] scores) {
+        float sum = 0f;
+        for (float s : scores) {
+            if (s < 0f || s > 1f) {
+                softmax(scores);
+                return;
+            }
+            sum += s;
+        }
+        if (Math.abs(sum - 1f) > 1e-2f) {
+            softmax(scores);
+        }
+    }
+
+    static void softmax(float[] logits) {
+        float max = Float.NEGATIVE_INFINITY;
+        for (float l : logits) {
+            if (l > max) max = l;
+        }
+        float sum = 0f;
+        for (int i = 0; i < logits.length; i++) {
+            logits[i] = (float) Math.exp(logits[i] - max);
+            sum += logits[i];
+        }
+        for (int i = 0; i < logits.length; i++) {
+            logits[i] /= sum;
+        }
+    }
+
+    // Writes the indices of the n highest scores into out (descending) and returns how many were written.
+    // Insertion into a fixed-size window: O(classes * n) with no allocation.
+    static int topN(float[] scores, int n, int[] out) {
+        int count = Math.min(n, Math.min(scores.length, out.length));
+        if (count <= 0) return 0;
+        int filled = 0;
+        for (int i = 0; i < scores.length; i++) {
+            float s = scores[i];
+            if (filled == count && s <= scores[out[count - 1]]) continue;
+
+            int pos = filled < count ? filled++ : count - 1;
+            while (pos > 0 && scores[out[pos - 1]] < s) {
+                out[pos] = out[pos - 1];
+                pos--;
+            }
+            out[pos] = i;
+        }
+        return filled;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.myapplication;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+// The outcome of one scan: the probability of every class (indexed like SkinClassifier.CLASS_NAMES),
+// the model that produced it and, if the scan was traced, its per-stage timings.
+// Parcelable so it crosses into ResultActivity as one extra instead of loose strings.
+public final class Prediction implements Parcelable {
+
+    static final String EXTRA = "prediction";
+
+    // Served by app.py; remote results carry no local model version
+    static final String REMOTE_MODEL = "remote";
+
+    final float[] probabilities;
+    final String modelVersion;
+    // Class indices from most to least likely
+    private final int[] ranking;
+
+    // Indexed by ScanTracer.Stage ordinal; all zero unless the scan was traced
+    final long[] stageNanos = new long[ScanTracer.Stage.values().length];
+    long traceStartNanos;
+    long traceLastNanos;
+
+    // Takes ownership of probabilities
+    Prediction(float[] probabilities, String modelVersion) {
+        this.probabilities = probabilities;
+        this.modelVersion = modelVersion;
+        ranking = new int[probabilities.length];
+        Postprocessor.topN(probabilities, probabilities.length, ranking);
+    }
+
+    int size() {
+        return ranking.length;
+    }
+
+    int classAt(int rank) {
+        return ranking[rank];
+    }
+
+    String labelAt(int rank) {
+        return SkinClassifier.CLASS_NAMES[ranking[rank]];
+    }
+
+    float confidenceAt(int rank) {
+        return probabilities[ranking[rank]];
+    }
+
+    SkinClassifier.Recognition top() {
+        return new SkinClassifier.Recognition(ranking[0], probabilities[ranking[0]]);
+    }
+
+    // Copies the trace so far; call after the last stage marked before handing off
+    void attachTrace(ScanTracer.ScanTrace trace) {
+        if (trace == null) return;
+        System.arraycopy(trace.stageNanos, 0, stageNanos, 0, stageNanos.length);
+        traceStartNanos = trace.startNanos;
+        traceLastNanos = trace.lastNanos;
+    }
+
+    private Prediction(Parcel in) {
+        this(in.createFloatArray(), in.readString());
+        in.readLongArray(stageNanos);
+        traceStartNanos = in.readLong();
+        traceLastNanos = in.readLong();
+    }
+
+    @Override
+    public void writeToParcel(Parcel out, int flags) {
+        out.writeFloatArray(probabilities);
+        out.writeString(modelVersion);
+        out.writeLongArray(stageNanos);
+        out.writeLong(traceStartNanos);
+        out.writeLong(traceLastNanos);
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    public static final Creator<Prediction> CREATOR = new Creator<Prediction>() {
+        @Override
+        public Prediction createFromParcel(Parcel in) {
+            return new Prediction(in);
+        }
+
+        @Override
+        public Prediction[] newArray(int size) {
+            return new Prediction[size];
+        }
+    };
+}
@@ -0,0 +1,155 @@
+package com.example.myapplication;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Client for the Flask POST /predict endpoint (Machine Learning/app.py).
+// Each scan is shrunk to a ModelPayload before upload (the full photo is sent only if that fails).
+// Uploads are multipart, streamed straight from the file, with at most MAX_IN_FLIGHT
+// requests on the wire and a short bounded queue behind them. Failed attempts are retried with
+// exponential backoff. Results are delivered on the main thread.
+class RemoteClassifier {
+
+    static final int MAX_IN_FLIGHT = 2;
+    static final int MAX_QUEUED = 8;
+    static final int MAX_ATTEMPTS = 3;
+    static final int TIMEOUT_MS = 10_000;
+
+    private static final long BASE_BACKOFF_MS = 250;
+    private static final int COPY_BUFFER_SIZE = 16 * 1024;
+
+    private final String predictUrl;
+    private final RemoteTransport transport;
+    private final File payloadDir;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_IN_FLIGHT, MAX_IN_FLIGHT,
+            30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(MAX_QUEUED), r -> new Thread(r, "Remote inference"));
+
+    RemoteClassifier(String baseUrl, RemoteTransport transport, File payloadDir) {
+        this.predictUrl = baseUrl.endsWith("/") ? baseUrl + "predict" : baseUrl + "/predict";
+        this.transport = transport;
+        this.payloadDir = payloadDir;
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    void classify(File jpeg, InferenceEngine.Callback callback) {
+        try {
+            executor.execute(() -> {
+                ModelPayload payload = null;
+                try {
+                    payload = ModelPayload.create(jpeg, payloadDir);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+
+                try {
+                    Prediction prediction = payload != null
+                            ? classifyNow(payload.file, payload.fields())
+                            : classifyNow(jpeg, Collections.emptyMap());
+                    mainHandler.post(() -> callback.onResult(prediction));
+                } catch (Exception e) {
+                    mainHandler.post(() -> callback.onError(e));
+                } finally {
+                    if (payload != null) {
+                        payload.file.delete();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Queue full: fail fast so the caller can fall back to on-device inference
+            mainHandler.post(() -> callback.onError(e));
+        }
+    }
+
+    // Blocking upload with retries; runs on the caller's thread. fields are sent as text parts.
+    Prediction classifyNow(File jpeg, Map<String, String> fields)
+            throws IOException, InterruptedException {
+        String boundary = "----SkinScan" + Long.toHexString(ThreadLocalRandom.current().nextLong());
+        StringBuilder parts = new StringBuilder();
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            parts.append("--").append(boundary).append("\r\n")
+                    .append("Content-Disposition: form-data; name=\"").append(field.getKey()).append("\"\r\n\r\n")
+                    .append(field.getValue()).append("\r\n");
+        }
+        byte[] head = (parts + "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"" + jpeg.getName() + "\"\r\n"
+                + "Content-Type: image/jpeg\r\n\r\n").getBytes(StandardCharsets.UTF_8);
+        byte[] tail = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8);
+        long length = head.length + jpeg.length() + tail.length;
+
+        RemoteTransport.Body body = out -> {
+            out.write(head);
+            try (InputStream in = new FileInputStream(jpeg)) {
+                byte[] buffer = new byte[COPY_BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+            }
+            out.write(tail);
+        };
+
+        IOException lastError = null;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            if (attempt > 0) {
+                // 250ms, 500ms, ... plus up to 50% jitter so retries from several scans spread out
+                long backoff = BASE_BACKOFF_MS << (attempt - 1);
+                Thread.sleep(backoff + ThreadLocalRandom.current().nextLong(backoff / 2 + 1));
+            }
+            try {
+                RemoteTransport.Response response = transport.post(predictUrl,
+                        "multipart/form-data; boundary=" + boundary, length, body, TIMEOUT_MS);
+                if (response.code == 200) {
+                    return parse(response.body);
+                }
+                lastError = new IOException("HTTP " + response.code + ": " + response.body);
+                // Client errors will not succeed on retry
+                if (response.code < 500 && response.code != 429) break;
+            } catch (IOException e) {
+                lastError = e;
+            }
+        }
+        throw lastError;
+    }
+
+    // {"disease": "...", "confidence": 0.93, "probabilities": [...]}; older servers send no probabilities
+    private static Prediction parse(String json) throws IOException {
+        try {
+            JSONObject result = new JSONObject(json);
+            float[] probabilities = new float[SkinClassifier.CLASS_NAMES.length];
+            JSONArray all = result.optJSONArray("probabilities");
+            if (all != null && all.length() == probabilities.length) {
+                for (int i = 0; i < probabilities.length; i++) {
+                    probabilities[i] = (float) all.getDouble(i);
+                }
+            } else {
+                int classIndex = Arrays.asList(SkinClassifier.CLASS_NAMES).indexOf(result.getString("disease"));
+                if (classIndex < 0) {
+                    throw new IOException("Unknown class " + result.getString("disease"));
+                }
+                probabilities[classIndex] = (float) result.getDouble("confidence");
+            }
+            return new Prediction(probabilities, Prediction.REMOTE_MODEL);
+        } catch (JSONException e) {
+            throw new IOException("Malformed response", e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.myapplication;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+// HTTP transport used by RemoteClassifier. Kept behind an interface so a local stand-in server
+// (or an in-process fake, see FakeTransport) can replace the real endpoint. Pure Java.
+interface RemoteTransport {
+
+    // Streams the request body; called once per attempt
+    interface Body {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    final class Response {
+        final int code;
+        final String body;
+
+        Response(int code, String body) {
+            this.code = code;
+            this.body = body;
+        }
+    }
+
+    // contentLength < 0 means unknown (chunked upload)
+    Response post(String url, String contentType, long contentLength, Body body, int timeoutMillis)
+            throws IOException;
+}
@@ -3,7 +3,12 @@ package com.example.myapplication;
 import android.content.Intent;
 import android.net.Uri;
 import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.widget.Button;
 import android.widget.ImageView;
+import android.widget.LinearLayout;
+import android.widget.ProgressBar;
 import android.widget.TextView;
 
 import androidx.appcompat.app.AppCompatActivity;
@@ -12,6 +17,7 @@ public class ResultActivity extends AppCompatActivity {
 
     ImageView resultImage;
     TextView resultDisease, resultConfidence, resultDescription;
+    LinearLayout rankedList;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -22,21 +28,74 @@ public class ResultActivity extends AppCompatActivity {
         resultDisease = findViewById(R.id.resultDisease);
         resultConfidence = findViewById(R.id.resultConfidence);
         resultDescription = findViewById(R.id.resultDescription);
+        rankedList = findViewById(R.id.rankedList);
 
         // Get data from intent
         Intent intent = getIntent();
         String imageUriStr = intent.getStringExtra("imageUri");
-        String disease = intent.getStringExtra("disease");
-        double confidence = intent.getDoubleExtra("confidence", 0.0);
-        String description = intent.getStringExtra("description");
+        Prediction prediction = intent.getParcelableExtra(Prediction.EXTRA);
+        if (prediction == null) {
+            finish();
+            return;
+        }
 
+        // Decoded off the main thread, so the first frame does not wait for the full-size capture
         if (imageUriStr != null) {
             Uri imageUri = Uri.parse(imageUriStr);
-            resultImage.setImageURI(imageUri);
+            ImageLoader.get(this).loadImage(imageUri, resultImage);
+            CaptureStorage.get(this).markUsed(imageUri);
+        }
+
+        SkinClassifier.Recognition top = prediction.top();
+        resultDisease.setText("Disease: " + top.label);
+        resultConfidence.setText("Confidence: " + (int) (top.confidence * 100) + "%");
+        resultDescription.setText(top.getDescription());
+        showRanked(prediction);
+
+        Button learnMore = findViewById(R.id.learnMoreButton);
+        learnMore.setText("About " + top.label);
+        learnMore.setOnClickListener(v -> showDetails(top.classIndex));
+
+        // The scan preloaded the catalog, so its image is usually the only thing the details still need
+        DiseaseCatalog catalog = DiseaseCatalog.get(this);
+        int entry = catalog.isLoaded() ? catalog.indexOfClass(top.classIndex) : -1;
+        if (entry >= 0) {
+            ImageLoader.get(this).prefetchAsset(catalog.get(entry).image, DiseaseInfoActivity.DISEASE_IMAGE_SIZE);
+        }
+
+        // Scan tracing ends once the result screen has drawn its first frame; a recreated screen
+        // (rotation) is the same scan and is not recorded again
+        if (savedInstanceState == null) {
+            getWindow().getDecorView().post(() ->
+                    ScanTracer.finish(prediction.traceStartNanos, prediction.traceLastNanos));
         }
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        ImageLoader.get(this).cancel(resultImage);
+    }
 
-        resultDisease.setText("Disease: " + disease);
-        resultConfidence.setText("Confidence: " + (int)(confidence * 100) + "%");
-        resultDescription.setText(description);
+    private void showDetails(int classIndex) {
+        Intent intent = new Intent(this, DiseaseInfoActivity.class);
+        intent.putExtra(DiseaseInfoActivity.EXTRA_CLASS_INDEX, classIndex);
+        startActivity(intent);
+    }
+
+    // Remote results may only know the top class, so classes with no probability are left out
+    private void showRanked(Prediction prediction) {
+        LayoutInflater inflater = LayoutInflater.from(this);
+        int count = Math.min(SkinClassifier.DEFAULT_TOP_N, prediction.size());
+        for (int rank = 0; rank < count && prediction.confidenceAt(rank) > 0f; rank++) {
+            int percent = Math.round(prediction.confidenceAt(rank) * 100);
+            View row = inflater.inflate(R.layout.item_prediction, rankedList, false);
+            ((TextView) row.findViewById(R.id.predictionLabel)).setText(prediction.labelAt(rank));
+            ((TextView) row.findViewById(R.id.predictionConfidence)).setText(percent + "%");
+            ((ProgressBar) row.findViewById(R.id.predictionBar)).setProgress(percent);
+            int classIndex = prediction.classAt(rank);
+            row.setOnClickListener(v -> showDetails(classIndex));
+            rankedList.addView(row);
+        }
     }
 }
@@ -0,0 +1,133 @@
+package com.example.myapplication;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+// Bounded, persistent cache of class probabilities keyed by perceptual image hash.
+// A lookup matches the closest stored hash within MAX_DISTANCE bits, so re-uploads and
+// near-identical retakes skip inference. The file is tagged with the model version and
+// discarded when the model changes. Pure Java; not thread-safe (owned by the inference thread).
+final class ResultCache {
+
+    static final int MAX_DISTANCE = 4;
+
+    private static final int MAGIC = 0x53524331; // "SRC1"
+
+    private final File file;
+    private final int capacity;
+    private final int classCount;
+
+    private final long[] hashes;
+    private final float[][] probabilities;
+    private final long[] lastUsed;
+    private int size;
+    private long clock;
+
+    private String modelVersion;
+    private boolean dirty;
+
+    ResultCache(File file, int capacity, int classCount) {
+        this.file = file;
+        this.capacity = capacity;
+        this.classCount = classCount;
+        hashes = new long[capacity];
+        probabilities = new float[capacity][classCount];
+        lastUsed = new long[capacity];
+    }
+
+    // Loads entries saved for modelVersion; anything saved for another model is dropped
+    void open(String modelVersion) {
+        this.modelVersion = modelVersion;
+        size = 0;
+        if (!file.exists()) return;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || !modelVersion.equals(in.readUTF()) || in.readInt() != classCount) {
+                dirty = true;
+                return;
+            }
+            int count = Math.min(in.readInt(), capacity);
+            for (int i = 0; i < count; i++) {
+                hashes[i] = in.readLong();
+                lastUsed[i] = in.readLong();
+                for (int c = 0; c < classCount; c++) {
+                    probabilities[i][c] = in.readFloat();
+                }
+                clock = Math.max(clock, lastUsed[i]);
+                size++;
+            }
+        } catch (IOException e) {
+            size = 0;
+            dirty = true;
+        }
+    }
+
+    // Copies the cached probabilities into out and returns true on a hit
+    boolean lookup(long hash, float[] out) {
+        int best = -1;
+        int bestDistance = MAX_DISTANCE + 1;
+        for (int i = 0; i < size; i++) {
+            int distance = Long.bitCount(hashes[i] ^ hash);
+            if (distance < bestDistance) {
+                best = i;
+                bestDistance = distance;
+                if (distance == 0) break;
+            }
+        }
+        if (best < 0) return false;
+
+        System.arraycopy(probabilities[best], 0, out, 0, classCount);
+        lastUsed[best] = ++clock;
+        return true;
+    }
+
+    void put(long hash, float[] scores) {
+        int slot;
+        if (size < capacity) {
+            slot = size++;
+        } else {
+            slot = 0;
+            for (int i = 1; i < size; i++) {
+                if (lastUsed[i] < lastUsed[slot]) slot = i;
+            }
+        }
+        hashes[slot] = hash;
+        System.arraycopy(scores, 0, probabilities[slot], 0, classCount);
+        lastUsed[slot] = ++clock;
+        dirty = true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Rewrites the whole file (a few KB) atomically
+    void save() throws IOException {
+        if (!dirty || modelVersion == null) return;
+
+        File temp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeUTF(modelVersion);
+            out.writeInt(classCount);
+            out.writeInt(size);
+            for (int i = 0; i < size; i++) {
+                out.writeLong(hashes[i]);
+                out.writeLong(lastUsed[i]);
+                for (int c = 0; c < classCount; c++) {
+                    out.writeFloat(probabilities[i][c]);
+                }
+            }
+        }
+        if (!temp.renameTo(file)) {
+            throw new IOException("Cannot replace " + file);
+        }
+        dirty = false;
+    }
+}
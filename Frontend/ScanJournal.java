@@ -0,0 +1,282 @@
+package com.example.myapplication;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+// Write-ahead journal of scans that still need a result.
+//
+// File layout: [int MAGIC][int VERSION] then records of [int length][int crc32][byte type][payload].
+// Every append is fsync'd before it returns, so a job that was acknowledged survives process death.
+// On open the journal is replayed; a torn or corrupt tail is truncated. Once completed records
+// outnumber pending ones the file is rewritten with just the pending jobs.
+// Pure Java; not thread-safe (owned by the scan queue thread).
+final class ScanJournal {
+
+    static final class Job {
+        final String key;
+        final String imageUri;
+        final long createdAt;
+        int attempts;
+        long nextAttemptAt;
+
+        Job(String key, String imageUri, long createdAt) {
+            this.key = key;
+            this.imageUri = imageUri;
+            this.createdAt = createdAt;
+        }
+    }
+
+    private static final int MAGIC = 0x53514a31; // "SQJ1"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int COMPACT_MIN_RECORDS = 64;
+
+    private static final byte TYPE_ENQUEUE = 1;
+    private static final byte TYPE_COMPLETE = 2;
+    private static final byte TYPE_RETRY = 3;
+
+    private final File file;
+    private final CRC32 crc = new CRC32();
+    private FileOutputStream output;
+
+    // Pending jobs in enqueue order
+    private final Map<String, Job> pending = new LinkedHashMap<>();
+    private int records;
+
+    ScanJournal(File file) throws IOException {
+        this.file = file;
+        load();
+    }
+
+    int size() {
+        return pending.size();
+    }
+
+    Job get(String key) {
+        return pending.get(key);
+    }
+
+    void enqueue(Job job) throws IOException {
+        if (pending.containsKey(job.key)) return;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(TYPE_ENQUEUE);
+        writeJob(out, job);
+        append(bytes);
+        sync();
+        pending.put(job.key, job);
+    }
+
+    // Completes several jobs with a single fsync
+    void complete(List<String> keys) throws IOException {
+        int written = 0;
+        for (String key : keys) {
+            if (pending.remove(key) == null) continue;
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(TYPE_COMPLETE);
+            out.writeUTF(key);
+            append(bytes);
+            written++;
+        }
+        if (written == 0) return;
+        sync();
+
+        if (records >= COMPACT_MIN_RECORDS && records > pending.size() * 2) {
+            compact();
+        }
+    }
+
+    void retry(Job job, long nextAttemptAt) throws IOException {
+        if (!pending.containsKey(job.key)) return;
+        job.attempts++;
+        job.nextAttemptAt = nextAttemptAt;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(TYPE_RETRY);
+        out.writeUTF(job.key);
+        out.writeInt(job.attempts);
+        out.writeLong(job.nextAttemptAt);
+        append(bytes);
+        sync();
+    }
+
+    // Up to limit jobs whose next attempt is due, oldest first, skipping keys in exclude
+    List<Job> due(long now, int limit, Set<String> exclude) {
+        List<Job> jobs = new ArrayList<>(limit);
+        for (Job job : pending.values()) {
+            if (jobs.size() == limit) break;
+            if (job.nextAttemptAt <= now && !exclude.contains(job.key)) {
+                jobs.add(job);
+            }
+        }
+        return jobs;
+    }
+
+    // Earliest next attempt among jobs not in exclude, or Long.MAX_VALUE if there are none
+    long nextDueTime(Set<String> exclude) {
+        long next = Long.MAX_VALUE;
+        for (Job job : pending.values()) {
+            if (!exclude.contains(job.key)) {
+                next = Math.min(next, job.nextAttemptAt);
+            }
+        }
+        return next;
+    }
+
+    void close() throws IOException {
+        if (output != null) {
+            output.close();
+            output = null;
+        }
+    }
+
+    private void load() throws IOException {
+        if (!file.exists() || file.length() < HEADER_SIZE) {
+            rewrite();
+            return;
+        }
+
+        long validLength = HEADER_SIZE;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Unsupported scan journal " + file);
+            }
+
+            byte[] record = new byte[256];
+            while (true) {
+                int length;
+                int checksum;
+                try {
+                    length = in.readInt();
+                    checksum = in.readInt();
+                    if (length <= 0) break;
+                    if (length > record.length) record = new byte[Math.max(length, record.length * 2)];
+                    in.readFully(record, 0, length);
+                } catch (EOFException e) {
+                    break;
+                }
+                crc.reset();
+                crc.update(record, 0, length);
+                if ((int) crc.getValue() != checksum) break;
+
+                replay(new DataInputStream(new ByteArrayInputStream(record, 0, length)));
+                records++;
+                validLength += 8 + length;
+            }
+        }
+
+        if (validLength < file.length()) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(validLength);
+            }
+        }
+        output = new FileOutputStream(file, true);
+    }
+
+    private void replay(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        if (type == TYPE_ENQUEUE) {
+            Job job = readJob(in);
+            pending.put(job.key, job);
+        } else if (type == TYPE_COMPLETE) {
+            pending.remove(in.readUTF());
+        } else if (type == TYPE_RETRY) {
+            Job job = pending.get(in.readUTF());
+            int attempts = in.readInt();
+            long nextAttemptAt = in.readLong();
+            if (job != null) {
+                job.attempts = attempts;
+                job.nextAttemptAt = nextAttemptAt;
+            }
+        }
+    }
+
+    private void append(ByteArrayOutputStream payload) throws IOException {
+        byte[] bytes = payload.toByteArray();
+        crc.reset();
+        crc.update(bytes, 0, bytes.length);
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output, bytes.length + 8));
+        out.writeInt(bytes.length);
+        out.writeInt((int) crc.getValue());
+        out.write(bytes);
+        out.flush();
+        records++;
+    }
+
+    private void sync() throws IOException {
+        output.getFD().sync();
+    }
+
+    private void compact() throws IOException {
+        close();
+        rewrite();
+    }
+
+    // Atomically replaces the file with one ENQUEUE per pending job (attempt state included)
+    private void rewrite() throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream stream = new FileOutputStream(temp)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            for (Job job : pending.values()) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+                DataOutputStream record = new DataOutputStream(bytes);
+                record.writeByte(TYPE_ENQUEUE);
+                writeJob(record, job);
+                byte[] payload = bytes.toByteArray();
+                crc.reset();
+                crc.update(payload, 0, payload.length);
+                out.writeInt(payload.length);
+                out.writeInt((int) crc.getValue());
+                out.write(payload);
+            }
+            out.flush();
+            stream.getFD().sync();
+        }
+        if (!temp.renameTo(file)) {
+            throw new IOException("Cannot replace " + file);
+        }
+        records = pending.size();
+        output = new FileOutputStream(file, true);
+    }
+
+    private static void writeJob(DataOutputStream out, Job job) throws IOException {
+        out.writeUTF(job.key);
+        out.writeUTF(job.imageUri);
+        out.writeLong(job.createdAt);
+        out.writeInt(job.attempts);
+        out.writeLong(job.nextAttemptAt);
+    }
+
+    private static Job readJob(DataInputStream in) throws IOException {
+        Job job = new Job(in.readUTF(), in.readUTF(), in.readLong());
+        job.attempts = in.readInt();
+        job.nextAttemptAt = in.readLong();
+        return job;
+    }
+}
@@ -0,0 +1,337 @@
+package com.example.myapplication;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// Durable queue of scans that still need a result.
+// enqueue() hands a scan's journal append (fsync'd) to the queue thread and returns at once, so
+// the write runs alongside inference rather than before it; complete() and release() are queued
+// behind it, so they always find the entry. A process death before that append lands loses the
+// retry of that one scan only. The interactive path completes a scan once its history entry is
+// saved. Scans left over by a failure or process death are drained here
+// in small batches with exponential backoff. History dedupes replays by the scan's key, so a scan
+// that was saved just before a crash is never recorded twice.
+public final class ScanQueue {
+
+    public interface Listener {
+        // Called on the main thread
+        void onQueueChanged(int pending, float drainedPerMinute);
+    }
+
+    static final int DRAIN_BATCH = 4;
+    static final int MAX_ATTEMPTS = 8;
+
+    private static final long BASE_BACKOFF_MS = 5_000;
+    private static final long MAX_BACKOFF_MS = 15 * 60_000;
+    private static final long RESULT_TIMEOUT_MS = 60_000;
+    private static final int RATE_WINDOW = 16;
+
+    private static ScanQueue instance;
+
+    private final Context appContext;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "Scan queue");
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+
+    // Only accessed on the queue thread
+    private ScanJournal journal;
+    private boolean started;
+    private final Set<String> claimed = new HashSet<>();
+    private ScheduledFuture<?> scheduledDrain;
+    private final long[] drainTimes = new long[RATE_WINDOW];
+    private int drainCount;
+    // The batch being classified, if any; at most one runs at a time
+    private DrainBatch drainBatch;
+
+    // Main thread only
+    private final List<Listener> listeners = new ArrayList<>();
+    private int lastPending;
+    private float lastRate;
+
+    private ScanQueue(Context context) {
+        appContext = context.getApplicationContext();
+    }
+
+    public static synchronized ScanQueue get(Context context) {
+        if (instance == null) {
+            instance = new ScanQueue(context);
+        }
+        return instance;
+    }
+
+    // Replays the journal and starts draining; safe to call more than once
+    public void start() {
+        executor.execute(() -> {
+            if (started) return;
+            try {
+                getJournal();
+            } catch (IOException e) {
+                e.printStackTrace();
+                return;
+            }
+            started = true;
+            watchNetwork();
+            scheduleDrain(0);
+            publish();
+        });
+    }
+
+    // Journals a scan the caller is about to classify itself; returns its idempotency key
+    public String enqueue(Uri imageUri) {
+        String key = UUID.randomUUID().toString();
+        executor.execute(() -> {
+            try {
+                claimed.add(key);
+                getJournal().enqueue(new ScanJournal.Job(key, imageUri.toString(), System.currentTimeMillis()));
+                publish();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+        return key;
+    }
+
+    // The caller's history entry for key is saved
+    public void complete(String key) {
+        executor.execute(() -> {
+            claimed.remove(key);
+            try {
+                getJournal().complete(Collections.singletonList(key));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            publish();
+        });
+    }
+
+    // The caller gave up on key; the queue retries it in the background
+    public void release(String key) {
+        executor.execute(() -> {
+            claimed.remove(key);
+            ScanJournal.Job job = journal != null ? journal.get(key) : null;
+            if (job != null) {
+                fail(job);
+            }
+            scheduleDrain(0);
+        });
+    }
+
+    // Images of scans still waiting for a result; they must not be deleted
+    Future<Set<String>> pendingImageUris() {
+        return executor.submit(() -> {
+            Set<String> uris = new HashSet<>();
+            for (ScanJournal.Job job : getJournal().due(Long.MAX_VALUE, Integer.MAX_VALUE, Collections.emptySet())) {
+                uris.add(job.imageUri);
+            }
+            return uris;
+        });
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+        listener.onQueueChanged(lastPending, lastRate);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    private void drain() {
+        scheduledDrain = null;
+        if (journal == null || drainBatch != null) return;
+
+        List<ScanJournal.Job> jobs = journal.due(System.currentTimeMillis(), DRAIN_BATCH, claimed);
+        if (jobs.isEmpty()) {
+            scheduleNextDue();
+            publish();
+            return;
+        }
+
+        // Classifications run concurrently and report back on this thread; the thread stays free
+        // for enqueue() and complete() in the meantime
+        DrainBatch batch = new DrainBatch(jobs);
+        drainBatch = batch;
+        for (int i = 0; i < jobs.size(); i++) {
+            ScanJournal.Job job = jobs.get(i);
+            claimed.add(job.key);
+            int index = i;
+            HybridClassifier.get(appContext).classify(Uri.parse(job.imageUri), null, new InferenceEngine.Callback() {
+                @Override
+                public void onResult(Prediction prediction) {
+                    executor.execute(() -> onClassified(batch, index, prediction));
+                }
+
+                @Override
+                public void onError(Exception e) {
+                    e.printStackTrace();
+                    executor.execute(() -> onClassified(batch, index, null));
+                }
+            });
+        }
+        batch.timeout = executor.schedule(() -> finishBatch(batch), RESULT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private void onClassified(DrainBatch batch, int index, Prediction prediction) {
+        if (batch.finished) return; // Timed out; the job was already retried
+        batch.predictions[index] = prediction;
+        if (--batch.remaining == 0) {
+            batch.timeout.cancel(false);
+            finishBatch(batch);
+        }
+    }
+
+    private void finishBatch(DrainBatch batch) {
+        if (batch.finished) return;
+        batch.finished = true;
+
+        List<HistoryItem> results = new ArrayList<>(batch.jobs.size());
+        List<String> keys = new ArrayList<>(batch.jobs.size());
+        for (int i = 0; i < batch.jobs.size(); i++) {
+            ScanJournal.Job job = batch.jobs.get(i);
+            Prediction prediction = batch.predictions[i];
+            if (prediction != null) {
+                HistoryItem item = HistoryRepository.newItem(prediction, job.imageUri);
+                item.scanKey = job.key;
+                results.add(item);
+                keys.add(job.key);
+            } else {
+                claimed.remove(job.key);
+                fail(job);
+            }
+        }
+
+        if (results.isEmpty()) {
+            drainBatch = null;
+            scheduleNextDue();
+            publish();
+            return;
+        }
+
+        // Complete only after history has the entries; the journal write is one fsync per batch
+        HistoryRepository.get(appContext).insertAll(results, () -> executor.execute(() -> {
+            claimed.removeAll(keys);
+            try {
+                journal.complete(keys);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            recordDrained(keys.size());
+            drainBatch = null;
+            scheduleDrain(0);
+            publish();
+        }));
+    }
+
+    private void scheduleNextDue() {
+        long nextDue = journal.nextDueTime(claimed);
+        if (nextDue != Long.MAX_VALUE) {
+            scheduleDrain(Math.max(0, nextDue - System.currentTimeMillis()));
+        }
+    }
+
+    private void fail(ScanJournal.Job job) {
+        try {
+            if (job.attempts + 1 >= MAX_ATTEMPTS) {
+                // The image is most likely gone or unreadable; stop retrying
+                journal.complete(Collections.singletonList(job.key));
+            } else {
+                long backoff = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << job.attempts);
+                journal.retry(job, System.currentTimeMillis() + backoff);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void scheduleDrain(long delayMillis) {
+        if (journal == null || journal.size() == 0) return;
+        if (scheduledDrain != null) {
+            if (scheduledDrain.getDelay(TimeUnit.MILLISECONDS) <= delayMillis) return;
+            scheduledDrain.cancel(false);
+        }
+        scheduledDrain = executor.schedule(this::drain, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Connectivity coming back is the usual reason a backed-off remote scan can now succeed
+    private void watchNetwork() {
+        ConnectivityManager connectivity = (ConnectivityManager) appContext.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (connectivity == null) return;
+        connectivity.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onAvailable(Network network) {
+                executor.execute(() -> scheduleDrain(0));
+            }
+        });
+    }
+
+    private void recordDrained(int count) {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            drainTimes[drainCount++ % RATE_WINDOW] = now;
+        }
+    }
+
+    // Completions per minute over the last RATE_WINDOW drained scans
+    private float drainRate() {
+        int samples = Math.min(drainCount, RATE_WINDOW);
+        if (samples < 2) return 0f;
+        long newest = drainTimes[(drainCount - 1) % RATE_WINDOW];
+        long oldest = drainTimes[(drainCount - samples) % RATE_WINDOW];
+        return newest > oldest ? (samples - 1) * 60_000f / (newest - oldest) : 0f;
+    }
+
+    private void publish() {
+        int pending = journal != null ? journal.size() : 0;
+        float rate = drainRate();
+        mainHandler.post(() -> {
+            lastPending = pending;
+            lastRate = rate;
+            for (Listener listener : listeners) {
+                listener.onQueueChanged(pending, rate);
+            }
+        });
+    }
+
+    private ScanJournal getJournal() throws IOException {
+        if (journal == null) {
+            journal = new ScanJournal(new File(appContext.getFilesDir(), "scan_queue.journal"));
+        }
+        return journal;
+    }
+
+    // Only accessed on the queue thread
+    private static final class DrainBatch {
+        final List<ScanJournal.Job> jobs;
+        final Prediction[] predictions;
+        int remaining;
+        boolean finished;
+        ScheduledFuture<?> timeout;
+
+        DrainBatch(List<ScanJournal.Job> jobs) {
+            this.jobs = jobs;
+            predictions = new Prediction[jobs.size()];
+            remaining = jobs.size();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.myapplication;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+// Per-stage latency tracing for a scan, from shutter press to the result screen.
+// When tracing is off start() returns null and every mark() is a single null check.
+// The same histograms also hold how long the model took to become ready after launch.
+// Pure Java: timestamps come from System.nanoTime(), which is monotonic within the process.
+final class ScanTracer {
+
+    enum Stage {
+        CAPTURE, ACQUIRE, DECODE, PREPROCESS, INFERENCE, POSTPROCESS, PERSIST, RENDER, TOTAL,
+        // Once per launch: model mapping and interpreter creation, warm-up inference, and the time
+        // from MainActivity.onCreate until both are done
+        MODEL_LOAD, WARM_UP, MODEL_READY
+    }
+
+    private static final LatencyHistogram[] HISTOGRAMS = new LatencyHistogram[Stage.values().length];
+
+    static {
+        for (int i = 0; i < HISTOGRAMS.length; i++) {
+            HISTOGRAMS[i] = new LatencyHistogram();
+        }
+    }
+
+    private static volatile boolean enabled;
+
+    private ScanTracer() {}
+
+    // One scan in flight. Marks are made by whichever thread owns the scan at that moment,
+    // always in sequence, so plain fields published through the executors are enough.
+    static final class ScanTrace {
+        final long startNanos;
+        long lastNanos;
+        // Time spent in each stage so far, indexed by Stage ordinal
+        final long[] stageNanos = new long[Stage.values().length];
+
+        private ScanTrace(long now) {
+            startNanos = now;
+            lastNanos = now;
+        }
+    }
+
+    static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    static boolean isEnabled() {
+        return enabled;
+    }
+
+    static ScanTrace start() {
+        return enabled ? new ScanTrace(System.nanoTime()) : null;
+    }
+
+    // Records the time since the previous mark against stage
+    static void mark(ScanTrace trace, Stage stage) {
+        if (trace == null) return;
+        long now = System.nanoTime();
+        HISTOGRAMS[stage.ordinal()].record(now - trace.lastNanos);
+        trace.stageNanos[stage.ordinal()] += now - trace.lastNanos;
+        trace.lastNanos = now;
+    }
+
+    // Closes a trace that crossed into another component as raw timestamps (0 = not traced)
+    static void finish(long startNanos, long lastNanos) {
+        if (startNanos == 0 || !enabled) return;
+        long now = System.nanoTime();
+        HISTOGRAMS[Stage.RENDER.ordinal()].record(now - lastNanos);
+        HISTOGRAMS[Stage.TOTAL.ordinal()].record(now - startNanos);
+    }
+
+    // Reported by MainActivity when InferenceEngine.warmUp finishes
+    static void recordModelReady(long readyMillis, long loadMillis, long warmUpMillis) {
+        if (!enabled) return;
+        HISTOGRAMS[Stage.MODEL_LOAD.ordinal()].record(loadMillis * 1_000_000);
+        HISTOGRAMS[Stage.WARM_UP.ordinal()].record(warmUpMillis * 1_000_000);
+        HISTOGRAMS[Stage.MODEL_READY.ordinal()].record(readyMillis * 1_000_000);
+    }
+
+    static LatencyHistogram histogram(Stage stage) {
+        return HISTOGRAMS[stage.ordinal()];
+    }
+
+    static void reset() {
+        for (LatencyHistogram histogram : HISTOGRAMS) {
+            histogram.reset();
+        }
+    }
+
+    // Human-readable p50/p95/p99 table in milliseconds
+    static String summary() {
+        StringBuilder sb = new StringBuilder(String.format(Locale.US,
+                "%-12s %6s %8s %8s %8s%n", "stage", "n", "p50", "p95", "p99"));
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram h = histogram(stage);
+            if (h.getCount() == 0) continue;
+            sb.append(String.format(Locale.US, "%-12s %6d %8.1f %8.1f %8.1f%n",
+                    stage.name().toLowerCase(Locale.US), h.getCount(),
+                    h.percentile(0.50) / 1e6, h.percentile(0.95) / 1e6, h.percentile(0.99) / 1e6));
+        }
+        return sb.toString();
+    }
+
+    // CSV for offline analysis: a percentile section, then every non-empty bucket
+    static void export(Writer out) throws IOException {
+        out.write("stage,count,p50_ns,p95_ns,p99_ns,max_ns\n");
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram h = histogram(stage);
+            out.write(String.format(Locale.US, "%s,%d,%d,%d,%d,%d%n", stage.name(), h.getCount(),
+                    h.percentile(0.50), h.percentile(0.95), h.percentile(0.99), h.getMax()));
+        }
+
+        out.write("\nstage,bucket_upper_ns,count\n");
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram h = histogram(stage);
+            for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+                long count = h.bucketCount(i);
+                if (count > 0) {
+                    out.write(stage.name() + "," + LatencyHistogram.bucketUpperBound(i) + "," + count + "\n");
+                }
+            }
+        }
+    }
+}
@@ -19,6 +19,10 @@ public class SettingsActivity extends AppCompatActivity {
     private SwitchCompat darkModeSwitch;
     private SwitchCompat notificationsSwitch;
     private SwitchCompat highAccuracySwitch;
+    private SwitchCompat yuvCaptureSwitch;
+    private SwitchCompat burstCaptureSwitch;
+    private SwitchCompat remoteInferenceSwitch;
+    private SwitchCompat shrinkCapturesSwitch;
 
     private SharedPreferences sharedPreferences;
     private boolean isLoading = false;
@@ -32,10 +36,16 @@ public class SettingsActivity extends AppCompatActivity {
         darkModeSwitch = findViewById(R.id.darkModeSwitch);
         notificationsSwitch = findViewById(R.id.notificationsSwitch);
         highAccuracySwitch = findViewById(R.id.highAccuracySwitch);
+        yuvCaptureSwitch = findViewById(R.id.yuvCaptureSwitch);
+        burstCaptureSwitch = findViewById(R.id.burstCaptureSwitch);
+        remoteInferenceSwitch = findViewById(R.id.remoteInferenceSwitch);
+        shrinkCapturesSwitch = findViewById(R.id.shrinkCapturesSwitch);
 
         // Set up click listeners
         findViewById(R.id.privacyPolicyItem).setOnClickListener(v -> openPrivacyPolicy());
         findViewById(R.id.termsItem).setOnClickListener(v -> openTermsOfService());
+        findViewById(R.id.latencyDebugItem).setOnClickListener(v ->
+                startActivity(new Intent(this, LatencyDebugActivity.class)));
 
         // Initialize SharedPreferences
         sharedPreferences = PreferenceManager.getDefaultSharedPreferences(this);
@@ -53,11 +63,19 @@ public class SettingsActivity extends AppCompatActivity {
 
         boolean darkMode = sharedPreferences.getBoolean("darkMode", false);
         boolean notifications = sharedPreferences.getBoolean("notifications", true);
-        boolean highAccuracy = sharedPreferences.getBoolean("highAccuracy", false);
+        boolean highAccuracy = sharedPreferences.getBoolean("highAccuracy", TfLiteSkinClassifier.defaultHighAccuracy(this));
+        boolean yuvCapture = sharedPreferences.getBoolean("yuvCapture", false);
+        boolean burstCapture = sharedPreferences.getBoolean("burstCapture", false);
+        boolean remoteInference = sharedPreferences.getBoolean("remoteInference", false);
+        boolean shrinkCaptures = sharedPreferences.getBoolean("shrinkOldCaptures", true);
 
         darkModeSwitch.setChecked(darkMode);
         notificationsSwitch.setChecked(notifications);
         highAccuracySwitch.setChecked(highAccuracy);
+        yuvCaptureSwitch.setChecked(yuvCapture);
+        burstCaptureSwitch.setChecked(burstCapture);
+        remoteInferenceSwitch.setChecked(remoteInference);
+        shrinkCapturesSwitch.setChecked(shrinkCaptures);
 
         isLoading = false;
     }
@@ -79,6 +97,32 @@ public class SettingsActivity extends AppCompatActivity {
         highAccuracySwitch.setOnCheckedChangeListener((buttonView, isChecked) -> {
             if (!isLoading) {
                 saveSetting("highAccuracy", isChecked);
+                // Load the newly chosen model now rather than on the next scan
+                InferenceEngine.get(this).warmUp(null);
+            }
+        });
+
+        yuvCaptureSwitch.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            if (!isLoading) {
+                saveSetting("yuvCapture", isChecked);
+            }
+        });
+
+        burstCaptureSwitch.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            if (!isLoading) {
+                saveSetting("burstCapture", isChecked);
+            }
+        });
+
+        remoteInferenceSwitch.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            if (!isLoading) {
+                saveSetting("remoteInference", isChecked);
+            }
+        });
+
+        shrinkCapturesSwitch.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            if (!isLoading) {
+                saveSetting("shrinkOldCaptures", isChecked);
             }
         });
     }
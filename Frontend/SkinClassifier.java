@@ -0,0 +1,82 @@
+package com.example.myapplication;
+
+import android.graphics.Bitmap;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+// On-device skin condition classifier. Implementations are not thread-safe and are
+// only ever touched from the InferenceEngine thread.
+public interface SkinClassifier {
+
+    // Must match CLASS_NAMES in "Machine Learning/app.py" (same order as the model output)
+    String[] CLASS_NAMES = {"Acne", "Carcinoma", "Eczema", "Keratosis", "Milia", "Rosacea"};
+
+    String[] CLASS_DESCRIPTIONS = {
+            "Common skin condition when hair follicles plug with oil and dead skin cells.",
+            "A cancer that begins in the skin cells; early diagnosis by a dermatologist is important.",
+            "A condition that makes the skin inflamed, itchy, dry and irritated.",
+            "Rough, scaly patches caused by a build-up of keratin, often from sun exposure.",
+            "Small, white, hard bumps that form when keratin gets trapped under the skin.",
+            "Facial redness and visible blood vessels, sometimes with small pus-filled bumps."
+    };
+
+    // Model input is INPUT_SIZE x INPUT_SIZE RGB, scaled to [0, 1] like app.py
+    int INPUT_SIZE = 224;
+
+    int DEFAULT_TOP_N = 3;
+
+    // Batch dimension of classifyBatch; fixed so its tensors are allocated once
+    int BATCH_SIZE = 8;
+
+    List<Recognition> classify(Bitmap bitmap, int topN);
+
+    // Reusable direct input tensor (INPUT_SIZE * INPUT_SIZE * 3 floats, native order).
+    // Callers on the inference thread may fill it directly and then call classifyInput.
+    ByteBuffer getInputBuffer();
+
+    List<Recognition> classifyInput(int topN);
+
+    // Runs on getInputBuffer and returns probabilities for every class (reused between calls)
+    float[] run();
+
+    // Changes whenever the bundled model changes; used to invalidate cached results
+    String getModelVersion();
+
+    // Direct buffer with room for BATCH_SIZE input tensors back to back, cleared to position 0
+    ByteBuffer getBatchInputBuffer();
+
+    // Runs one full BATCH_SIZE inference over getBatchInputBuffer and returns the results of the
+    // first count tensors; the slots after them are padding and their outputs are dropped
+    List<List<Recognition>> classifyBatch(int count, int topN);
+
+    void close();
+
+    class Recognition {
+        final int classIndex;
+        final String label;
+        final float confidence;
+
+        Recognition(int classIndex, float confidence) {
+            this.classIndex = classIndex;
+            this.label = CLASS_NAMES[classIndex];
+            this.confidence = confidence;
+        }
+
+        String getDescription() {
+            return CLASS_DESCRIPTIONS[classIndex];
+        }
+
+        static List<Recognition> topN(float[] probabilities, int n) {
+            int[] indices = new int[probabilities.length];
+            int count = Postprocessor.topN(probabilities, n, indices);
+
+            List<Recognition> results = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                results.add(new Recognition(indices[i], probabilities[indices[i]]));
+            }
+            return results;
+        }
+    }
+}
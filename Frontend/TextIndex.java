@@ -0,0 +1,132 @@
+package com.example.myapplication;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+
+// In-memory inverted index for search-as-you-type. Text is split into lowercase letter/digit
+// tokens; a query matches documents containing every query token as a prefix of some word,
+// so "ecz itch" finds eczema's "Severe itching". Posting lists are kept sorted; documents
+// usually arrive in increasing id order, which makes adding one an append. Not thread-safe.
+final class TextIndex {
+
+    // Sorted, so all terms sharing a prefix are one contiguous subMap
+    private final TreeMap<String, IntList> postings = new TreeMap<>();
+    private int maxDoc = -1;
+
+    void add(int doc, String text) {
+        maxDoc = Math.max(maxDoc, doc);
+        for (String term : tokenize(text)) {
+            addTerm(term, doc);
+        }
+    }
+
+    // text must be what doc was added with, so its terms can be found
+    void remove(int doc, String text) {
+        for (String term : tokenize(text)) {
+            IntList docs = postings.get(term);
+            if (docs == null) continue;
+            int index = docs.binarySearch(doc);
+            if (index < 0) continue;
+            docs.removeAt(index);
+            if (docs.size() == 0) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    void clear() {
+        postings.clear();
+        maxDoc = -1;
+    }
+
+    int termCount() {
+        return postings.size();
+    }
+
+    // Ids of matching documents in ascending order; null query or no tokens matches nothing
+    int[] search(String query) {
+        long[] matches = match(query);
+        return matches != null ? toIds(matches) : new int[0];
+    }
+
+    // Matching documents as a bitset (bit d of word d >> 6); null if none match or the query has no tokens
+    long[] match(String query) {
+        String[] tokens = tokenize(query);
+        if (tokens.length == 0 || maxDoc < 0) return null;
+
+        long[] result = null;
+        for (String token : tokens) {
+            long[] matches = new long[(maxDoc >> 6) + 1];
+            boolean any = false;
+            for (IntList docs : postings.subMap(token, token + Character.MAX_VALUE).values()) {
+                for (int i = 0; i < docs.size(); i++) {
+                    int doc = docs.get(i);
+                    matches[doc >> 6] |= 1L << doc;
+                }
+                any = true;
+            }
+            if (!any) return null;
+
+            if (result == null) {
+                result = matches;
+            } else {
+                for (int w = 0; w < result.length; w++) {
+                    result[w] &= matches[w];
+                }
+            }
+        }
+        return result;
+    }
+
+    static String[] tokenize(String text) {
+        if (text == null) return new String[0];
+        List<String> tokens = new ArrayList<>();
+        int length = text.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean word = i < length && Character.isLetterOrDigit(text.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    private void addTerm(String term, int doc) {
+        IntList docs = postings.get(term);
+        if (docs == null) {
+            docs = new IntList(4);
+            postings.put(term, docs);
+        }
+        // A word repeated within one document is posted once
+        int size = docs.size();
+        if (size == 0 || docs.get(size - 1) < doc) {
+            docs.add(doc);
+        } else {
+            int index = docs.binarySearch(doc);
+            if (index < 0) docs.insert(-index - 1, doc);
+        }
+    }
+
+    private static int[] toIds(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        int[] ids = new int[count];
+        int n = 0;
+        for (int w = 0; w < bits.length; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                ids[n++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.myapplication;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.res.AssetFileDescriptor;
+import android.graphics.Bitmap;
+
+import org.tensorflow.lite.Interpreter;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// TensorFlow Lite implementation of SkinClassifier.
+// The models are produced by "Machine Learning/export_tflite.py" and bundled in assets.
+public class TfLiteSkinClassifier implements SkinClassifier {
+
+    // Both variants take and return the same float tensors; only the weights and kernels differ
+    enum Precision {
+        FLOAT("skin_classifier.tflite"),
+        INT8("skin_classifier_int8.tflite");
+
+        final String asset;
+
+        Precision(String asset) {
+            this.asset = asset;
+        }
+    }
+
+    // The "highAccuracy" setting picks the float model. Unset, low-RAM devices get int8 (see the
+    // model comparison in LatencyDebugActivity for what that costs in agreement).
+    static Precision preferredPrecision(Context context, SharedPreferences preferences) {
+        return preferences.getBoolean("highAccuracy", defaultHighAccuracy(context)) ? Precision.FLOAT : Precision.INT8;
+    }
+
+    static boolean defaultHighAccuracy(Context context) {
+        ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        return activityManager == null || !activityManager.isLowRamDevice();
+    }
+
+    private static final int BYTES_PER_FLOAT = 4;
+
+    private final Interpreter interpreter;
+    // Second interpreter over the same mapped model with its input fixed at BATCH_SIZE, so batch
+    // runs and single scans never resize each other's tensors; created on first batch
+    private Interpreter batchInterpreter;
+    private final ByteBuffer model;
+    private final Interpreter.Options options;
+    private final Precision precision;
+    private final String modelVersion;
+    private final int modelBytes;
+
+    // Reused for every call so a scan allocates nothing but the result list
+    private final ByteBuffer inputBuffer;
+    private final int[] pixels = new int[INPUT_SIZE * INPUT_SIZE];
+    private final float[][] output = new float[1][CLASS_NAMES.length];
+
+    private ByteBuffer batchInputBuffer;
+    private final float[][] batchOutput = new float[BATCH_SIZE][CLASS_NAMES.length];
+
+    public TfLiteSkinClassifier(Context context, Precision precision) throws IOException {
+        options = new Interpreter.Options();
+        options.setNumThreads(Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        CRC32 checksum = new CRC32();
+        model = loadModel(context, precision.asset, checksum);
+        interpreter = new Interpreter(model, options);
+        this.precision = precision;
+        modelVersion = precision.asset + "-" + Long.toHexString(checksum.getValue());
+        modelBytes = model.limit();
+
+        inputBuffer = ByteBuffer.allocateDirect(INPUT_SIZE * INPUT_SIZE * 3 * BYTES_PER_FLOAT);
+        inputBuffer.order(ByteOrder.nativeOrder());
+    }
+
+    private static ByteBuffer loadModel(Context context, String asset, CRC32 checksum) throws IOException {
+        try {
+            return mapModel(context, asset, checksum);
+        } catch (FileNotFoundException e) {
+            // openFd only works for assets stored uncompressed (aaptOptions noCompress "tflite")
+            return copyModel(context, asset, checksum);
+        }
+    }
+
+    // Maps the model straight out of the APK: nothing is copied onto the heap, and the pages live in
+    // the shared page cache, so a relaunch usually finds them already resident
+    private static ByteBuffer mapModel(Context context, String asset, CRC32 checksum) throws IOException {
+        try (AssetFileDescriptor fd = context.getAssets().openFd(asset);
+             FileInputStream in = new FileInputStream(fd.getFileDescriptor());
+             FileChannel channel = in.getChannel()) {
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer model = channel.map(FileChannel.MapMode.READ_ONLY,
+                    fd.getStartOffset(), fd.getDeclaredLength());
+            checksum.update(model.duplicate());
+            return model;
+        }
+    }
+
+    private static ByteBuffer copyModel(Context context, String asset, CRC32 checksum) throws IOException {
+        // Interpreter needs a direct buffer; compressed assets can only be streamed, so copy them
+        try (InputStream in = context.getAssets().open(asset)) {
+            byte[] chunk = new byte[64 * 1024];
+            ByteBuffer model = ByteBuffer.allocateDirect(Math.max(in.available(), chunk.length));
+            int read;
+            while ((read = in.read(chunk)) != -1) {
+                if (model.remaining() < read) {
+                    ByteBuffer bigger = ByteBuffer.allocateDirect(model.capacity() * 2 + read);
+                    model.flip();
+                    bigger.put(model);
+                    model = bigger;
+                }
+                model.put(chunk, 0, read);
+                checksum.update(chunk, 0, read);
+            }
+            model.flip();
+            return model.order(ByteOrder.nativeOrder());
+        }
+    }
+
+    @Override
+    public List<Recognition> classify(Bitmap bitmap, int topN) {
+        inputBuffer.rewind();
+        ImagePreprocessor.writeTensor(bitmap, pixels, inputBuffer);
+        return classifyInput(topN);
+    }
+
+    @Override
+    public ByteBuffer getInputBuffer() {
+        return inputBuffer;
+    }
+
+    @Override
+    public List<Recognition> classifyInput(int topN) {
+        return Recognition.topN(run(), topN);
+    }
+
+    @Override
+    public float[] run() {
+        inputBuffer.rewind();
+        interpreter.run(inputBuffer, output);
+        Postprocessor.ensureProbabilities(output[0]);
+        return output[0];
+    }
+
+    @Override
+    public String getModelVersion() {
+        return modelVersion;
+    }
+
+    Precision getPrecision() {
+        return precision;
+    }
+
+    int getModelBytes() {
+        return modelBytes;
+    }
+
+    @Override
+    public ByteBuffer getBatchInputBuffer() {
+        if (batchInputBuffer == null) {
+            batchInputBuffer = ByteBuffer.allocateDirect(BATCH_SIZE * ImagePreprocessor.TENSOR_BYTES)
+                    .order(ByteOrder.nativeOrder());
+        }
+        batchInputBuffer.clear();
+        return batchInputBuffer;
+    }
+
+    @Override
+    public List<List<Recognition>> classifyBatch(int count, int topN) {
+        if (batchInterpreter == null) {
+            batchInterpreter = new Interpreter(model, options);
+            batchInterpreter.resizeInput(0, new int[]{BATCH_SIZE, INPUT_SIZE, INPUT_SIZE, 3});
+            batchInterpreter.allocateTensors();
+        }
+
+        // Padding slots keep whatever an earlier batch left there; only their outputs are skipped
+        ByteBuffer input = batchInputBuffer.duplicate().order(ByteOrder.nativeOrder());
+        input.position(0).limit(BATCH_SIZE * ImagePreprocessor.TENSOR_BYTES);
+        batchInterpreter.run(input, batchOutput);
+
+        List<List<Recognition>> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Postprocessor.ensureProbabilities(batchOutput[i]);
+            results.add(Recognition.topN(batchOutput[i], topN));
+        }
+        return results;
+    }
+
+    @Override
+    public void close() {
+        interpreter.close();
+        if (batchInterpreter != null) {
+            batchInterpreter.close();
+        }
+    }
+}
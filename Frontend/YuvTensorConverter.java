@@ -0,0 +1,112 @@
+package com.example.myapplication;
+
+import java.nio.ByteBuffer;
+
+// Converts a YUV_420_888 camera frame straight into the float model input tensor.
+// Center crop, rotation, resize and [0, 1] normalization are done in a single pass
+// over the output pixels, with no intermediate Bitmap or JPEG encode.
+// Pure Java so it can be benchmarked off-device.
+final class YuvTensorConverter {
+
+    private final int outSize;
+
+    // Per output row/column source coordinate offsets, rebuilt only when the frame geometry changes
+    private final int[] rowX;
+    private final int[] rowY;
+    private final int[] colX;
+    private final int[] colY;
+    private int lastWidth = -1;
+    private int lastHeight = -1;
+    private int lastRotation = -1;
+
+    YuvTensorConverter(int outSize) {
+        this.outSize = outSize;
+        rowX = new int[outSize];
+        rowY = new int[outSize];
+        colX = new int[outSize];
+        colY = new int[outSize];
+    }
+
+    // rotation is the clockwise rotation (0, 90, 180, 270) that makes the frame upright.
+    // out receives outSize * outSize * 3 floats in RGB order starting at position 0.
+    void convert(ByteBuffer yPlane, ByteBuffer uPlane, ByteBuffer vPlane,
+                 int width, int height, int yRowStride, int uvRowStride, int uvPixelStride,
+                 int rotation, ByteBuffer out) {
+        if (width != lastWidth || height != lastHeight || rotation != lastRotation) {
+            buildSampling(width, height, rotation);
+        }
+
+        out.rewind();
+        for (int oy = 0; oy < outSize; oy++) {
+            int rx = rowX[oy];
+            int ry = rowY[oy];
+            for (int ox = 0; ox < outSize; ox++) {
+                int sx = rx + colX[ox];
+                int sy = ry + colY[ox];
+
+                int yValue = yPlane.get(sy * yRowStride + sx) & 0xFF;
+                int uvIndex = (sy >> 1) * uvRowStride + (sx >> 1) * uvPixelStride;
+                int u = (uPlane.get(uvIndex) & 0xFF) - 128;
+                int v = (vPlane.get(uvIndex) & 0xFF) - 128;
+
+                // BT.601 full range, 10-bit fixed point
+                int r = yValue + ((1436 * v) >> 10);
+                int g = yValue - ((352 * u + 731 * v) >> 10);
+                int b = yValue + ((1815 * u) >> 10);
+
+                out.putFloat(clamp(r) / 255f);
+                out.putFloat(clamp(g) / 255f);
+                out.putFloat(clamp(b) / 255f);
+            }
+        }
+        out.rewind();
+    }
+
+    // Nearest-neighbour sampling of the centered square crop (the same square
+    // ImagePreprocessor.centerSquare gives the JPEG and remote paths), expressed so that the source
+    // pixel of output (ox, oy) is (rowX[oy] + colX[ox], rowY[oy] + colY[ox]) for every rotation
+    private void buildSampling(int width, int height, int rotation) {
+        int side = Math.min(width, height);
+        int cropX = (width - side) / 2;
+        int cropY = (height - side) / 2;
+
+        for (int i = 0; i < outSize; i++) {
+            int m = (int) (((long) i * side + side / 2) / outSize);
+            int mirrored = side - 1 - m;
+            switch (rotation) {
+                case 90:
+                    rowX[i] = cropX + m;
+                    rowY[i] = 0;
+                    colX[i] = 0;
+                    colY[i] = cropY + mirrored;
+                    break;
+                case 180:
+                    rowX[i] = 0;
+                    rowY[i] = cropY + mirrored;
+                    colX[i] = cropX + mirrored;
+                    colY[i] = 0;
+                    break;
+                case 270:
+                    rowX[i] = cropX + mirrored;
+                    rowY[i] = 0;
+                    colX[i] = 0;
+                    colY[i] = cropY + m;
+                    break;
+                default:
+                    rowX[i] = 0;
+                    rowY[i] = cropY + m;
+                    colX[i] = cropX + m;
+                    colY[i] = 0;
+                    break;
+            }
+        }
+
+        lastWidth = width;
+        lastHeight = height;
+        lastRotation = rotation;
+    }
+
+    private static int clamp(int value) {
+        return value < 0 ? 0 : Math.min(value, 255);
+    }
+}
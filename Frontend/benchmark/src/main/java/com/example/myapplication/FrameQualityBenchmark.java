@@ -0,0 +1,55 @@
+package com.example.myapplication;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Burst frame scoring on the Y plane of typical analysis-stream sizes
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FrameQualityBenchmark {
+
+    @Param({"640x480", "1280x720"})
+    public String size;
+
+    private ByteBuffer luma;
+    private int width;
+    private int height;
+    private int rowStride;
+    private final FrameQuality quality = new FrameQuality();
+
+    @Setup
+    public void setUp() {
+        String[] parts = size.split("x");
+        width = Integer.parseInt(parts[0]);
+        height = Integer.parseInt(parts[1]);
+        rowStride = (width + 63) & ~63;
+
+        byte[] bytes = new byte[rowStride * height];
+        new Random(7).nextBytes(bytes);
+        luma = ByteBuffer.allocateDirect(bytes.length);
+        luma.put(bytes).flip();
+    }
+
+    @Benchmark
+    public double measure() {
+        quality.measure(luma, width, height, rowStride);
+        return quality.sharpness;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.myapplication;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// History page queries at the top and deep in a large store, plus the append done for every scan
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HistoryStoreBenchmark {
+
+    private static final String[] DISEASES = {"Acne", "Carcinoma", "Eczema", "Keratosis", "Milia", "Rosacea"};
+
+    // 2024-01-01T00:00Z; rows are spaced SPACING apart from here
+    private static final long START = 1_704_067_200_000L;
+    private static final long SPACING = 7 * 60 * 1000;
+    private static final long DAY = 24L * 60 * 60 * 1000;
+
+    private static final String[] NOTES = {"left forearm", "cheek, itchy since monday", "follow-up after cream", "back of neck"};
+
+    // A filter the history screen builds while the user types: text, disease, confidence and date
+    private static final HistoryStore.Filter FILTER =
+            new HistoryStore.Filter("fore", "Eczema", 0.8, Double.POSITIVE_INFINITY, START + 60 * DAY, Long.MAX_VALUE);
+
+    @Param({"10000", "50000"})
+    public int rows;
+
+    private File file;
+    private HistoryStore store;
+    private HistoryStore.Cursor deepCursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        file = File.createTempFile("history", ".log");
+        file.delete();
+        store = new HistoryStore(file, DISEASES);
+        for (int i = 0; i < rows; i++) {
+            store.insert(item(i));
+        }
+
+        // Cursor positioned 90% of the way down the list
+        HistoryItem deep = store.queryPage(null, null, rows * 9 / 10).get(rows * 9 / 10 - 1);
+        deepCursor = HistoryStore.Cursor.after(deep);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        store.close();
+        file.delete();
+    }
+
+    @Benchmark
+    public List<HistoryItem> firstPage() throws Exception {
+        return store.queryPage(null, null, 30);
+    }
+
+    @Benchmark
+    public List<HistoryItem> deepPage() throws Exception {
+        return store.queryPage(null, deepCursor, 30);
+    }
+
+    @Benchmark
+    public List<HistoryItem> diseasePage() throws Exception {
+        return store.queryPage("Eczema", null, 30);
+    }
+
+    // 30-day rollup of one class, answered from the prefix sums without touching rows
+    @Benchmark
+    public int analyticsWindow() {
+        long to = HistoryDates.epochDay(START + 150 * DAY);
+        return store.queryAnalytics(analytics -> analytics.window(2, to - 30, to).count);
+    }
+
+    @Benchmark
+    public HistoryStore.SearchResult search() {
+        return store.search(FILTER);
+    }
+
+    // One history row's date label, as the list binds it
+    @Benchmark
+    public String formatDate() {
+        return HistoryDates.format(START + (System.nanoTime() & 0xFFFF) * SPACING);
+    }
+
+    @Benchmark
+    public long insert() throws Exception {
+        return store.insert(item(rows));
+    }
+
+    private static HistoryItem item(int i) {
+        HistoryItem item = new HistoryItem(DISEASES[i % DISEASES.length], 0.5 + (i % 50) / 100.0,
+                START + i * SPACING, "content://scan/" + i);
+        if (i % 5 == 0) {
+            item.notes = NOTES[(i / 5) % NOTES.length];
+        }
+        return item;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.myapplication;
+
+import java.io.IOException;
+
+// Drives HybridPolicy through a scripted session against FakeTransport and fails if the route
+// does not switch over: remote once it measures faster, local while the server is down and for
+// the cooldown after, remote again once it is back, and local once remote slows down.
+// Run with `gradle hybridPolicyCheck` (also part of `gradle check`).
+public final class HybridPolicyCheck {
+
+    private static final long LOCAL_MS = 40;
+    // Mirrors RemoteClassifier.TIMEOUT_MS, which depends on Android
+    private static final int TIMEOUT_MS = 10_000;
+    private static final String RESPONSE = "{\"disease\": \"Acne\", \"confidence\": 0.9}";
+
+    private final HybridPolicy policy = new HybridPolicy();
+    private final FakeTransport transport = new FakeTransport(RESPONSE, 5);
+    // Simulated wall clock for the cooldown; remote latency is really measured
+    private long now = 1_000_000;
+
+    public static void main(String[] args) throws IOException {
+        new HybridPolicyCheck().run();
+        System.out.println("HybridPolicy switch-over OK");
+    }
+
+    private void run() throws IOException {
+        expect(scan(), HybridPolicy.Route.LOCAL, "remote inference is off");
+        expect(scan(), HybridPolicy.Route.LOCAL, "remote inference is off");
+
+        policy.setRemoteEnabled(true);
+        expect(scan(), HybridPolicy.Route.REMOTE, "remote is measured once local is");
+        for (int i = 0; i < HybridPolicy.PROBE_INTERVAL - 1; i++) {
+            expect(scan(), HybridPolicy.Route.REMOTE, "remote measures faster");
+        }
+        expect(scan(), HybridPolicy.Route.LOCAL, "local is probed every PROBE_INTERVAL scans");
+
+        transport.setDown(true);
+        expect(scan(), HybridPolicy.Route.REMOTE, "the outage is not known yet");
+        expect(scan(), HybridPolicy.Route.LOCAL, "remote failed");
+        transport.setDown(false);
+        now += HybridPolicy.FAILURE_COOLDOWN_MS - 1;
+        expect(scan(), HybridPolicy.Route.LOCAL, "still in the failure cooldown");
+        now += 1;
+        expect(scan(), HybridPolicy.Route.REMOTE, "the cooldown is over");
+        expect(scan(), HybridPolicy.Route.REMOTE, "remote measures faster again");
+
+        transport.setLatency(LOCAL_MS * 4);
+        int remoteScans = 0;
+        while (scan() == HybridPolicy.Route.REMOTE) {
+            if (++remoteScans > 5) throw new AssertionError("Still remote after it slowed down");
+        }
+        int probes = 0;
+        for (int i = 0; i < HybridPolicy.PROBE_INTERVAL; i++) {
+            if (scan() == HybridPolicy.Route.REMOTE) probes++;
+        }
+        if (probes != 1) throw new AssertionError("Expected one remote probe after it slowed down, got " + probes);
+    }
+
+    // One scan as HybridClassifier runs it; returns the route taken first
+    private HybridPolicy.Route scan() throws IOException {
+        HybridPolicy.Route route = policy.choose(now);
+        if (route == HybridPolicy.Route.REMOTE) {
+            long start = System.nanoTime();
+            try {
+                transport.post("http://fake/predict", "multipart/form-data", 0, out -> {}, TIMEOUT_MS);
+                policy.recordRemote((System.nanoTime() - start) / 1_000_000);
+                return route;
+            } catch (IOException e) {
+                policy.recordRemoteFailure(now);
+            }
+        }
+        policy.recordLocal(LOCAL_MS);
+        return route;
+    }
+
+    private static void expect(HybridPolicy.Route actual, HybridPolicy.Route expected, String why) {
+        if (actual != expected) {
+            throw new AssertionError("Expected " + expected + " (" + why + ") but got " + actual);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.myapplication;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Handling of the JPEG plane from the still ImageReader: the current heap copy
+// (new byte[] + FileOutputStream) against writing the direct buffer through a channel
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JpegBufferBenchmark {
+
+    // Typical 12 MP JPEG at quality 90
+    private static final int JPEG_BYTES = 3 * 1024 * 1024;
+
+    private ByteBuffer plane;
+    private File target;
+
+    @Setup
+    public void setUp() throws IOException {
+        byte[] bytes = new byte[JPEG_BYTES];
+        new Random(42).nextBytes(bytes);
+        plane = ByteBuffer.allocateDirect(JPEG_BYTES);
+        plane.put(bytes).flip();
+        target = File.createTempFile("capture", ".jpg");
+    }
+
+    @TearDown
+    public void tearDown() {
+        target.delete();
+    }
+
+    @Benchmark
+    public int heapCopy() throws IOException {
+        ByteBuffer buffer = plane.duplicate();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        try (FileOutputStream out = new FileOutputStream(target)) {
+            out.write(bytes);
+        }
+        return bytes.length;
+    }
+
+    @Benchmark
+    public int channelWrite() throws IOException {
+        ByteBuffer buffer = plane.duplicate();
+        int written = 0;
+        try (FileChannel channel = new FileOutputStream(target).getChannel()) {
+            while (buffer.hasRemaining()) {
+                written += channel.write(buffer);
+            }
+        }
+        return written;
+    }
+}
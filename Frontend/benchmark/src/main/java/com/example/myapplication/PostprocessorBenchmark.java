@@ -0,0 +1,52 @@
+package com.example.myapplication;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Softmax and top-N selection over the model output
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PostprocessorBenchmark {
+
+    private final float[] logits = {2.1f, -0.3f, 0.7f, 1.4f, -1.2f, 0.1f};
+    private final float[] scores = new float[SkinClassifierShape.CLASS_COUNT];
+    private final int[] top = new int[SkinClassifierShape.CLASS_COUNT];
+
+    @Setup
+    public void setUp() {
+        System.arraycopy(logits, 0, scores, 0, logits.length);
+        Postprocessor.softmax(scores);
+    }
+
+    @Benchmark
+    public float[] softmax() {
+        System.arraycopy(logits, 0, scores, 0, logits.length);
+        Postprocessor.softmax(scores);
+        return scores;
+    }
+
+    @Benchmark
+    public int ensureProbabilities() {
+        Postprocessor.ensureProbabilities(scores);
+        return top.length;
+    }
+
+    @Benchmark
+    public int top3() {
+        return Postprocessor.topN(scores, 3, top);
+    }
+}
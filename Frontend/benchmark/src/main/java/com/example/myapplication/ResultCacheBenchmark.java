@@ -0,0 +1,65 @@
+package com.example.myapplication;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Perceptual hash of the input tensor and the duplicate-scan lookup done before every inference
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResultCacheBenchmark {
+
+    private ByteBuffer tensor;
+    private final float[] luma = new float[ImageHash.scratchSize()];
+    private final float[] out = new float[SkinClassifierShape.CLASS_COUNT];
+    private ResultCache cache;
+    private long missHash;
+
+    @Setup
+    public void setUp() throws Exception {
+        Random random = new Random(42);
+        tensor = ByteBuffer.allocateDirect(SkinClassifierShape.TENSOR_BYTES).order(ByteOrder.nativeOrder());
+        while (tensor.hasRemaining()) {
+            tensor.putFloat(random.nextFloat());
+        }
+        tensor.flip();
+
+        File file = File.createTempFile("result_cache", ".bin");
+        file.deleteOnExit();
+        cache = new ResultCache(file, 512, SkinClassifierShape.CLASS_COUNT);
+        cache.open("benchmark");
+        float[] scores = new float[SkinClassifierShape.CLASS_COUNT];
+        for (int i = 0; i < 512; i++) {
+            cache.put(random.nextLong(), scores);
+        }
+        missHash = random.nextLong();
+    }
+
+    @Benchmark
+    public long dHash() {
+        return ImageHash.dHash(tensor, SkinClassifierShape.INPUT_SIZE, luma);
+    }
+
+    // Full cache, no match: the worst case paid by every new scan
+    @Benchmark
+    public boolean lookupMiss() {
+        return cache.lookup(missHash, out);
+    }
+}
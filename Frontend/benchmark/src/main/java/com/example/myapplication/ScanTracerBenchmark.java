@@ -0,0 +1,42 @@
+package com.example.myapplication;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Cost of one stage mark with tracing on and off
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ScanTracerBenchmark {
+
+    @Param({"false", "true"})
+    public boolean enabled;
+
+    private ScanTracer.ScanTrace trace;
+
+    @Setup
+    public void setUp() {
+        ScanTracer.setEnabled(enabled);
+        trace = ScanTracer.start();
+    }
+
+    @Benchmark
+    public ScanTracer.ScanTrace mark() {
+        ScanTracer.mark(trace, ScanTracer.Stage.INFERENCE);
+        return trace;
+    }
+}
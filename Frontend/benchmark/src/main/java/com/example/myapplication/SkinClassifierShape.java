@@ -0,0 +1,11 @@
+package com.example.myapplication;
+
+// Model tensor geometry, mirrored here because SkinClassifier itself depends on Android
+final class SkinClassifierShape {
+
+    static final int INPUT_SIZE = 224;
+    static final int CLASS_COUNT = 6;
+    static final int TENSOR_BYTES = INPUT_SIZE * INPUT_SIZE * 3 * 4;
+
+    private SkinClassifierShape() {}
+}
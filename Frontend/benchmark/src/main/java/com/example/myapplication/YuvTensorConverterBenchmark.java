@@ -0,0 +1,75 @@
+package com.example.myapplication;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Resize + rotate + normalize of one camera frame into the model tensor (replaces rotateBitmap + JPEG decode)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class YuvTensorConverterBenchmark {
+
+    @Param({"640x480", "1280x720"})
+    public String frameSize;
+
+    @Param({"0", "90"})
+    public int rotation;
+
+    private int width;
+    private int height;
+    private ByteBuffer y;
+    private ByteBuffer u;
+    private ByteBuffer v;
+    private ByteBuffer tensor;
+    private YuvTensorConverter converter;
+
+    @Setup
+    public void setUp() {
+        String[] parts = frameSize.split("x");
+        width = Integer.parseInt(parts[0]);
+        height = Integer.parseInt(parts[1]);
+
+        // Semi-planar layout (pixel stride 2), as most devices deliver YUV_420_888
+        Random random = new Random(42);
+        y = randomDirect(random, width * height);
+        ByteBuffer uv = randomDirect(random, width * height / 2);
+        u = uv.duplicate();
+        v = uv.duplicate();
+        v.position(1);
+        v = v.slice();
+
+        tensor = ByteBuffer.allocateDirect(SkinClassifierShape.TENSOR_BYTES).order(ByteOrder.nativeOrder());
+        converter = new YuvTensorConverter(SkinClassifierShape.INPUT_SIZE);
+    }
+
+    @Benchmark
+    public ByteBuffer convert() {
+        converter.convert(y, u, v, width, height, width, width, 2, rotation, tensor);
+        return tensor;
+    }
+
+    private static ByteBuffer randomDirect(Random random, int size) {
+        byte[] bytes = new byte[size];
+        random.nextBytes(bytes);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(size);
+        buffer.put(bytes).flip();
+        return buffer;
+    }
+}
@@ -1,36 +1,72 @@
-from flask import Flask, request, jsonify
-import tensorflow as tf
-import numpy as np
-from PIL import Image
-import io
-
-app = Flask(__name__)
-model = tf.keras.models.load_model('disease_detection_model.h5')
-
-# Define class names (update with your actual classes)
-CLASS_NAMES = ['Acne', 'Carcinoma', 'Eczema', 'Keratosis', 'Milia', 'Rosacea']
-
-@app.route('/predict', methods=['POST'])
-def predict():
-    if 'file' not in request.files:
-        return jsonify({'error': 'No file uploaded'}), 400
-    
-    file = request.files['file'].read()
-    image = Image.open(io.BytesIO(file))
-    
-    # Preprocess image (adjust based on your model's requirements)
-    image = image.resize((224, 224))  # example size
-    image = np.array(image) / 255.0
-    image = np.expand_dims(image, axis=0)
-    
-    predictions = model.predict(image)
-    predicted_class = CLASS_NAMES[np.argmax(predictions)]
-    confidence = float(np.max(predictions))
-    
-    return jsonify({
-        'disease': predicted_class,
-        'confidence': confidence
-    })
-
-if __name__ == '__main__':
-    app.run(host='0.0.0.0', port=5000)
\ No newline at end of file
+from flask import Flask, request, jsonify
+import tensorflow as tf
+import numpy as np
+from PIL import Image
+import io
+import os
+from concurrent.futures import TimeoutError
+
+from batching import DynamicBatcher, QueueFullError
+from preprocessing import model_input
+
+app = Flask(__name__)
+model = tf.keras.models.load_model('disease_detection_model.h5')
+
+# Define class names (update with your actual classes)
+CLASS_NAMES = ['Acne', 'Carcinoma', 'Eczema', 'Keratosis', 'Milia', 'Rosacea']
+IMG_SIZE = (224, 224)
+# Sent by the app when it has already cropped, rotated and scaled the photo on the device
+MODEL_READY_FORMAT = 'model-ready-v1'
+
+# Dynamic batching: concurrent requests share one model call
+MAX_BATCH_SIZE = int(os.environ.get('MAX_BATCH_SIZE', 16))
+MAX_WAIT_MS = float(os.environ.get('MAX_WAIT_MS', 5))
+MAX_QUEUE = int(os.environ.get('MAX_QUEUE', 256))
+REQUEST_TIMEOUT_S = float(os.environ.get('REQUEST_TIMEOUT_S', 10))
+
+# Warm up so the first real batch doesn't pay graph tracing
+model.predict_on_batch(np.zeros((1, *IMG_SIZE, 3), dtype=np.float32))
+batcher = DynamicBatcher(model.predict_on_batch, MAX_BATCH_SIZE, MAX_WAIT_MS, MAX_QUEUE)
+
+@app.route('/predict', methods=['POST'])
+def predict():
+    if 'file' not in request.files:
+        return jsonify({'error': 'No file uploaded'}), 400
+    
+    file = request.files['file'].read()
+    image = Image.open(io.BytesIO(file))
+
+    # Preprocess on the request thread so the batch worker only runs the model.
+    # Full images get the same centered square the app crops, so both uploads look alike to the model
+    if request.form.get('format') == MODEL_READY_FORMAT:
+        if image.size != IMG_SIZE:
+            return jsonify({'error': 'Model-ready payload must be %dx%d' % IMG_SIZE}), 400
+        image = image.convert('RGB')
+    else:
+        image = model_input(image, IMG_SIZE)
+    image = np.asarray(image, dtype=np.float32) / 255.0
+
+    try:
+        predictions = batcher.predict(image, timeout=REQUEST_TIMEOUT_S)
+    except QueueFullError:
+        return jsonify({'error': 'Server busy, retry later'}), 503
+    except TimeoutError:
+        return jsonify({'error': 'Prediction timed out'}), 504
+
+    predicted_class = CLASS_NAMES[int(np.argmax(predictions))]
+    confidence = float(np.max(predictions))
+    
+    # Every class probability in CLASS_NAMES order, so the app can rank the alternatives
+    return jsonify({
+        'disease': predicted_class,
+        'confidence': confidence,
+        'probabilities': [float(p) for p in predictions]
+    })
+
+@app.route('/metrics', methods=['GET'])
+def metrics():
+    return jsonify(batcher.metrics())
+
+if __name__ == '__main__':
+    # Threaded so concurrent requests can wait on the batcher together
+    app.run(host='0.0.0.0', port=5000, threaded=True)
@@ -0,0 +1,111 @@
+import threading
+import time
+import queue
+from concurrent.futures import Future, TimeoutError
+
+import numpy as np
+
+
+class QueueFullError(Exception):
+    """Raised when the admission limit is reached; callers should answer 503"""
+
+
+class DynamicBatcher:
+    """Coalesces concurrent single-image requests into one model call.
+
+    A single worker thread takes the first waiting request, then keeps collecting until
+    max_batch_size requests are in hand or max_wait_ms has passed since the first one arrived.
+    The batch runs as one predict and each caller's Future receives its own row.
+    """
+
+    def __init__(self, predict_fn, max_batch_size=16, max_wait_ms=5, max_queue=256):
+        self.predict_fn = predict_fn
+        self.max_batch_size = max_batch_size
+        self.max_wait = max_wait_ms / 1000.0
+        self.requests = queue.Queue(maxsize=max_queue)
+
+        self._lock = threading.Lock()
+        self._batch_sizes = [0] * (max_batch_size + 1)
+        self._served = 0
+        self._rejected = 0
+        self._failed_batches = 0
+        self._busy_seconds = 0.0
+        self._started = time.monotonic()
+
+        self._worker = threading.Thread(target=self._run, name="batcher", daemon=True)
+        self._worker.start()
+
+    def submit(self, image):
+        """Queue one preprocessed image (H x W x C); returns a Future of its output row"""
+        future = Future()
+        try:
+            self.requests.put_nowait((image, future))
+        except queue.Full:
+            with self._lock:
+                self._rejected += 1
+            raise QueueFullError()
+        return future
+
+    def predict(self, image, timeout=None):
+        future = self.submit(image)
+        try:
+            return future.result(timeout=timeout)
+        except TimeoutError:
+            # Still queued: make sure the worker skips it
+            future.cancel()
+            raise
+
+    def metrics(self):
+        with self._lock:
+            batches = sum(self._batch_sizes)
+            elapsed = max(time.monotonic() - self._started, 1e-9)
+            return {
+                "queue_depth": self.requests.qsize(),
+                "queue_limit": self.requests.maxsize,
+                "served": self._served,
+                "rejected": self._rejected,
+                "failed_batches": self._failed_batches,
+                "batches": batches,
+                "mean_batch_size": self._served / batches if batches else 0.0,
+                "batch_size_counts": {str(size): count for size, count in enumerate(self._batch_sizes) if count},
+                "worker_utilization": self._busy_seconds / elapsed,
+            }
+
+    def _collect(self):
+        batch = [self.requests.get()]
+        deadline = time.monotonic() + self.max_wait
+        while len(batch) < self.max_batch_size:
+            remaining = deadline - time.monotonic()
+            if remaining <= 0:
+                break
+            try:
+                batch.append(self.requests.get(timeout=remaining))
+            except queue.Empty:
+                break
+        return batch
+
+    def _run(self):
+        while True:
+            batch = self._collect()
+            # Requests whose caller already gave up are dropped before paying for inference
+            batch = [(image, future) for image, future in batch if future.set_running_or_notify_cancel()]
+            if not batch:
+                continue
+
+            start = time.monotonic()
+            try:
+                outputs = self.predict_fn(np.stack([image for image, _ in batch]))
+                for (_, future), row in zip(batch, outputs):
+                    future.set_result(row)
+                failed = False
+            except Exception as e:
+                for _, future in batch:
+                    future.set_exception(e)
+                failed = True
+
+            with self._lock:
+                self._busy_seconds += time.monotonic() - start
+                self._batch_sizes[len(batch)] += 1
+                self._served += len(batch)
+                if failed:
+                    self._failed_batches += 1
@@ -0,0 +1,179 @@
+import os
+import struct
+
+# ====================== CONFIGURATION ======================
+# Written straight over the copy committed with the app, so the two cannot drift apart
+CATALOG_PATH = os.path.join(os.path.dirname(os.path.abspath(__file__)), "..", "Frontend", "disease_catalog.bin")
+
+# Read by DiseaseCatalog.java: "SDC1", count, a name index sorted case-insensitively
+# (one record offset per entry), then the records. Strings are a big-endian u16 byte
+# length followed by UTF-8; lists are a u16 count followed by strings.
+CATALOG_MAGIC = b"SDC1"
+
+# Every model class (CLASS_NAMES in app.py) must have an entry with the same name,
+# so the result screen can link straight to it
+CATALOG = [
+    {
+        "name": "Acne",
+        "image": "acne.jpg",
+        "description": "Acne is a skin condition that occurs when hair follicles become plugged with oil and dead skin cells. It causes whiteheads, blackheads or pimples.",
+        "symptoms": [
+            "• Whiteheads (closed plugged pores)",
+            "• Blackheads (open plugged pores)",
+            "• Small red, tender bumps (papules)",
+            "• Pimples (pustules)",
+            "• Large, solid, painful lumps beneath the skin (nodules)",
+            "• Painful, pus-filled lumps beneath the skin (cystic lesions)",
+        ],
+        "treatments": [
+            "✓ Topical treatments like benzoyl peroxide or salicylic acid",
+            "✓ Antibiotics to reduce bacteria and inflammation",
+            "✓ Oral contraceptives for hormonal acne in women",
+            "✓ Isotretinoin for severe acne",
+            "✓ Light therapy to reduce bacteria",
+            "✓ Chemical peels to improve mild acne",
+        ],
+    },
+    {
+        "name": "Carcinoma",
+        "image": "carcinoma.jpg",
+        "description": "Skin carcinomas are cancers that begin in the skin cells, most often basal cell or squamous cell carcinoma. They usually develop on sun-exposed skin and are highly treatable when found early.",
+        "symptoms": [
+            "• A pearly or waxy bump",
+            "• A flat, flesh-colored or brown scar-like lesion",
+            "• A firm, red nodule",
+            "• A flat lesion with a scaly, crusted surface",
+            "• A sore that bleeds, heals and returns",
+        ],
+        "treatments": [
+            "✓ See a dermatologist promptly for a biopsy",
+            "✓ Surgical excision of the lesion",
+            "✓ Mohs surgery for lesions on the face",
+            "✓ Cryotherapy or curettage for small, early lesions",
+            "✓ Radiation therapy when surgery is not an option",
+            "✓ Daily sunscreen and regular skin checks afterwards",
+        ],
+    },
+    {
+        "name": "Eczema",
+        "image": "eczema.jpg",
+        "description": "Eczema is a condition that makes your skin inflamed or irritated. The most common type is atopic dermatitis which often begins in childhood.",
+        "symptoms": [
+            "• Dry, sensitive skin",
+            "• Red, inflamed skin",
+            "• Severe itching",
+            "• Dark colored patches",
+            "• Rough, leathery or scaly patches",
+            "• Oozing or crusting",
+            "• Areas of swelling",
+        ],
+        "treatments": [
+            "✓ Moisturize regularly with fragrance-free creams",
+            "✓ Use mild, non-soap cleansers",
+            "✓ Apply corticosteroid creams to reduce inflammation",
+            "✓ Take antihistamines for severe itching",
+            "✓ Use wet dressings for severe flares",
+            "✓ Phototherapy for widespread eczema",
+        ],
+    },
+    {
+        "name": "Keratosis",
+        "image": "keratosis.jpg",
+        "description": "Actinic keratosis is a rough, scaly patch caused by years of sun exposure. It is common on the face, ears, scalp and hands, and a small share can progress to skin cancer.",
+        "symptoms": [
+            "• Rough, dry or scaly patch of skin",
+            "• Flat to slightly raised bump",
+            "• Pink, red or brown color",
+            "• Itching, burning or crusting",
+            "• Hard, wart-like surface in some cases",
+        ],
+        "treatments": [
+            "✓ Cryotherapy (freezing with liquid nitrogen)",
+            "✓ Prescription creams such as fluorouracil or imiquimod",
+            "✓ Photodynamic therapy",
+            "✓ Curettage or laser resurfacing",
+            "✓ Sun protection to prevent new patches",
+        ],
+    },
+    {
+        "name": "Milia",
+        "image": "milia.jpg",
+        "description": "Milia are small, white cysts that form when keratin gets trapped beneath the skin surface. They are harmless, common in newborns and often clear on their own.",
+        "symptoms": [
+            "• Tiny, dome-shaped white or yellow bumps",
+            "• Usually on the eyelids, cheeks or nose",
+            "• Firm to the touch",
+            "• Not painful or itchy",
+        ],
+        "treatments": [
+            "✓ Often no treatment needed; they clear within weeks",
+            "✓ Gentle exfoliation and non-comedogenic skin care",
+            "✓ Topical retinoids",
+            "✓ De-roofing or extraction by a dermatologist",
+            "✓ Avoid picking or squeezing the bumps",
+        ],
+    },
+    {
+        "name": "Rosacea",
+        "image": "rosacea.jpg",
+        "description": "Rosacea is a chronic condition that causes redness and visible blood vessels in the face. It may also produce small, red, pus-filled bumps and tends to flare up for weeks at a time.",
+        "symptoms": [
+            "• Persistent facial redness",
+            "• Visible small blood vessels",
+            "• Swollen, red bumps resembling acne",
+            "• Burning or stinging skin",
+            "• Dry, irritated, swollen eyes",
+            "• Thickened skin on the nose in severe cases",
+        ],
+        "treatments": [
+            "✓ Identify and avoid triggers such as heat, alcohol and spicy food",
+            "✓ Topical brimonidine, azelaic acid or metronidazole",
+            "✓ Oral antibiotics for bumps and pimples",
+            "✓ Laser or light therapy for visible blood vessels",
+            "✓ Gentle cleansers and daily sunscreen",
+        ],
+    },
+]
+
+# ====================== EXPORT ======================
+def encode_string(value):
+    data = value.encode('utf-8')
+    if len(data) > 0xFFFF:
+        raise ValueError(f"String too long: {value[:40]}...")
+    return struct.pack('>H', len(data)) + data
+
+def encode_list(values):
+    return struct.pack('>H', len(values)) + b"".join(encode_string(v) for v in values)
+
+def encode_record(entry):
+    return (encode_string(entry["name"]) + encode_string(entry["image"])
+            + encode_string(entry["description"])
+            + encode_list(entry["symptoms"]) + encode_list(entry["treatments"]))
+
+def export_catalog(entries):
+    # Sorted the way DiseaseCatalog.indexOf compares names, so it can binary search the index
+    entries = sorted(entries, key=lambda e: e["name"].lower())
+    names = [e["name"].lower() for e in entries]
+    if len(set(names)) != len(names):
+        raise ValueError("Duplicate disease names in catalog")
+
+    records = [encode_record(e) for e in entries]
+    header_size = len(CATALOG_MAGIC) + 4 + 4 * len(records)
+    offsets, offset = [], header_size
+    for record in records:
+        offsets.append(offset)
+        offset += len(record)
+
+    with open(CATALOG_PATH, 'wb') as f:
+        f.write(CATALOG_MAGIC)
+        f.write(struct.pack('>i', len(records)))
+        for record_offset in offsets:
+            f.write(struct.pack('>i', record_offset))
+        for record in records:
+            f.write(record)
+    return len(records), offset
+
+if __name__ == "__main__":
+    count, size = export_catalog(CATALOG)
+    print(f"✅ Exported {os.path.normpath(CATALOG_PATH)} ({count} conditions, {size / 1024:.1f} KB)")
+    print("📦 Commit it; the app bundles it as an uncompressed asset next to the disease images")
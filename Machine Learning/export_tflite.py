@@ -0,0 +1,105 @@
+import os
+import struct
+import numpy as np
+from PIL import Image
+import tensorflow as tf
+
+from preprocessing import model_input
+
+# ====================== CONFIGURATION ======================
+# Same model and class order that app.py serves
+MODEL_PATH = "disease_detection_model.h5"
+TFLITE_PATH = "skin_classifier.tflite"
+INT8_TFLITE_PATH = "skin_classifier_int8.tflite"
+VALIDATION_SET_PATH = "validation_set.bin"
+CLASS_NAMES = ['Acne', 'Carcinoma', 'Eczema', 'Keratosis', 'Milia', 'Rosacea']
+IMG_SIZE = (224, 224)
+
+# training.py's dataset; its validation split is the last 15% of each class folder
+INPUT_FOLDER = "dataset"
+VALIDATION_SPLIT = 0.15
+CALIBRATION_SAMPLES = 200
+VALIDATION_SAMPLES_PER_CLASS = 5
+
+# Read by ModelComparison.java: "SVS1", count, then per sample a class byte and 224x224x3 RGB bytes
+VALIDATION_MAGIC = b"SVS1"
+
+# ====================== DATA ======================
+def load_image(path):
+    # Same preprocessing as app.py, kept as uint8 until the model needs floats
+    image = model_input(Image.open(path), IMG_SIZE)
+    return np.asarray(image, dtype=np.uint8)
+
+def split_files():
+    training, validation = [], []
+    for class_index, name in enumerate(CLASS_NAMES):
+        folder = os.path.join(INPUT_FOLDER, name)
+        files = sorted(os.path.join(folder, f) for f in os.listdir(folder)
+                       if f.lower().endswith(('.jpg', '.jpeg', '.png')))
+        split = int(len(files) * (1 - VALIDATION_SPLIT))
+        training += [(path, class_index) for path in files[:split]]
+        validation += [(path, class_index) for path in files[split:]]
+    return training, validation
+
+def representative_dataset(files):
+    # Calibrates the int8 ranges on real training images, not random noise
+    rng = np.random.default_rng(0)
+    for index in rng.permutation(len(files))[:CALIBRATION_SAMPLES]:
+        image = load_image(files[index][0]).astype(np.float32) / 255.0
+        yield [image[np.newaxis, ...]]
+
+# ====================== EXPORT ======================
+def load_keras_model():
+    model = tf.keras.models.load_model(MODEL_PATH)
+
+    output_classes = model.output_shape[-1]
+    if output_classes != len(CLASS_NAMES):
+        raise ValueError(f"Model has {output_classes} outputs, expected {len(CLASS_NAMES)}")
+    return model
+
+def export_float_model(model):
+    converter = tf.lite.TFLiteConverter.from_keras_model(model)
+    tflite_model = converter.convert()
+
+    with open(TFLITE_PATH, 'wb') as f:
+        f.write(tflite_model)
+    return len(tflite_model)
+
+def export_int8_model(model, training_files):
+    # Weights and activations in int8; input and output stay float32 so the app feeds
+    # both models the same tensor
+    converter = tf.lite.TFLiteConverter.from_keras_model(model)
+    converter.optimizations = [tf.lite.Optimize.DEFAULT]
+    converter.representative_dataset = lambda: representative_dataset(training_files)
+    converter.target_spec.supported_ops = [tf.lite.OpsSet.TFLITE_BUILTINS_INT8]
+    tflite_model = converter.convert()
+
+    with open(INT8_TFLITE_PATH, 'wb') as f:
+        f.write(tflite_model)
+    return len(tflite_model)
+
+def export_validation_set(validation_files):
+    samples = []
+    for class_index in range(len(CLASS_NAMES)):
+        paths = [path for path, label in validation_files if label == class_index]
+        samples += [(path, class_index) for path in paths[:VALIDATION_SAMPLES_PER_CLASS]]
+
+    with open(VALIDATION_SET_PATH, 'wb') as f:
+        f.write(VALIDATION_MAGIC)
+        f.write(struct.pack('>i', len(samples)))
+        for path, class_index in samples:
+            f.write(struct.pack('>B', class_index))
+            f.write(load_image(path).tobytes())
+    return len(samples)
+
+if __name__ == "__main__":
+    model = load_keras_model()
+    training_files, validation_files = split_files()
+
+    size = export_float_model(model)
+    print(f"✅ Exported {TFLITE_PATH} ({size / 1024 / 1024:.1f} MB)")
+    size = export_int8_model(model, training_files)
+    print(f"✅ Exported {INT8_TFLITE_PATH} ({size / 1024 / 1024:.1f} MB)")
+    count = export_validation_set(validation_files)
+    print(f"✅ Exported {VALIDATION_SET_PATH} ({count} images)")
+    print("📦 Copy all three into app/src/main/assets/ (uncompressed) so the app can load and compare them")
@@ -0,0 +1,39 @@
+import os
+
+from PIL import Image, ImageOps
+
+
+def center_square(image):
+    """The centered square of a PIL image: the part of a photo the model sees.
+
+    Matches ImagePreprocessor.centerSquare in the app, so a photo reaches the model the same way
+    whether it is classified on the phone, uploaded as a cropped payload or uploaded whole.
+    """
+    width, height = image.size
+    side = min(width, height)
+    left = (width - side) // 2
+    top = (height - side) // 2
+    return image.crop((left, top, left + side, top + side))
+
+
+def model_input(image, size):
+    """Upright, RGB, center-cropped and resized to size: the model's view of a full photo"""
+    image = ImageOps.exif_transpose(image).convert('RGB')
+    return center_square(image).resize(size)
+
+
+def crop_dataset(source, target):
+    """Writes the upright centered square of every image under source to the same path under target.
+
+    flow_from_directory resizes without cropping, so training reads this copy to see photos the way
+    the app and the server present them. Existing outputs are kept, so a rerun only adds new images.
+    """
+    for root, _, files in os.walk(source):
+        out_dir = os.path.join(target, os.path.relpath(root, source))
+        os.makedirs(out_dir, exist_ok=True)
+        for name in files:
+            out_path = os.path.join(out_dir, name)
+            if not name.lower().endswith(('.jpg', '.jpeg', '.png')) or os.path.exists(out_path):
+                continue
+            with Image.open(os.path.join(root, name)) as image:
+                center_square(ImageOps.exif_transpose(image).convert('RGB')).save(out_path)